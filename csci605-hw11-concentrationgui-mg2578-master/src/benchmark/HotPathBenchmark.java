@@ -0,0 +1,422 @@
+/*
+Homework 11 : Concentration GUI
+File Name : HotPathBenchmark.java
+ */
+package benchmark;
+
+import bot.BotStrategy;
+import controller.InboundQueue;
+import controller.Listener;
+import controller.MessageDecoder;
+import logging.Log;
+import model.BoardEvent;
+import model.ConcentrationModel;
+import sim.GameSimulator;
+import sync.SnapshotCodec;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import static common.ConcentrationProtocol.*;
+
+/**
+ * Measures the client's hot paths without a server or JavaFX.
+ * Each case is warmed up, then timed over several rounds; the median time
+ * per operation and the bytes allocated per operation are reported.
+ * Results can be saved to a baseline file and later runs compared with
+ * it, so a change that slows a path down shows up as a regression.
+ * benchmark/baseline.properties holds the results of the current code;
+ * times depend on the machine, so save a baseline of your own before
+ * comparing on another one. The file names the JVM and processors used.
+ *
+ * Usage: java benchmark.HotPathBenchmark [baseline file] [--save]
+ * e.g. java benchmark.HotPathBenchmark benchmark/baseline.properties
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class HotPathBenchmark {
+
+    /** board dimension used by every case */
+    private static final int DIM = 4;
+    /** operations per round */
+    private static final int OPERATIONS = 200_000;
+    /** rounds run before measuring */
+    private static final int WARMUP_ROUNDS = 5;
+    /** rounds measured */
+    private static final int ROUNDS = 10;
+    /** slowdown against the baseline reported as a regression */
+    private static final double REGRESSION = 1.10;
+
+    /** the cases, by name, in the order they are run */
+    private final Map<String, BenchmarkCase> cases = new LinkedHashMap<>();
+
+
+    /**
+     * One timed operation, run count times in a row.
+     *
+     */
+    @FunctionalInterface
+    public interface BenchmarkCase {
+
+        /**
+         * Runs the operation.
+         *
+         * @param count    number of times to run it
+         * @throws Exception if the operation fails
+         *
+         */
+        void run(int count) throws Exception;
+    }
+
+
+    /**
+     * Constructor.
+     * Registers the cases.
+     *
+     */
+    public HotPathBenchmark() {
+        ConcentrationModel model = newModel();
+        String[] cards = new String[DIM * DIM];
+        String[] mismatches = new String[DIM * DIM];
+        String[] matches = new String[DIM * DIM];
+        for (int cell = 0; cell < DIM * DIM; cell++) {
+            int row = cell / DIM;
+            int col = cell % DIM;
+            cards[cell] = CARD + " " + row + " " + col + " "
+                    + (char) ('A' + cell / 2);
+            mismatches[cell] = MISMATCH + " " + row + " " + col + " "
+                    + (DIM - 1 - row) + " " + (DIM - 1 - col);
+            matches[cell] = MATCH + " " + row + " " + col + " "
+                    + (DIM - 1 - row) + " " + (DIM - 1 - col);
+        }
+        int mask = DIM * DIM - 1;
+
+        add("model.loadImagesInGrid", count -> {
+            for (int i = 0; i < count; i++) {
+                model.loadImagesInGrid(DIM);
+            }
+        });
+        add("model.serverRevealsCardGUI", count -> {
+            for (int i = 0; i < count; i++) {
+                model.serverRevealsCardGUI(cards[i & mask]);
+            }
+        });
+        add("model.revealCard", count -> {
+            for (int i = 0; i < count; i++) {
+                int cell = i & mask;
+                model.revealCard(cell / DIM, cell % DIM, cell / 2);
+            }
+        });
+        add("model.hideCard", count -> {
+            for (int i = 0; i < count; i++) {
+                model.hideCard(mismatches[i & mask]);
+            }
+        });
+        add("model.displayCardOnMatch", count -> {
+            for (int i = 0; i < count; i++) {
+                model.displayCardOnMatch(matches[i & mask]);
+            }
+        });
+        byte[] trace = trace(cards, mismatches, matches);
+        add("listener.dispatch", count -> {
+//            one operation is one message; the trace has 3 per card.
+            int games = Math.max(1, count / (3 * DIM * DIM));
+            for (int i = 0; i < games; i++) {
+                new Listener(new MessageDecoder(
+                        new ByteArrayInputStream(trace)), newModel()).run();
+            }
+        });
+        add("listener.dispatch.logOff", count -> {
+            int games = Math.max(1, count / (3 * DIM * DIM));
+            Log.setLevel(Log.Level.OFF);
+            try {
+                for (int i = 0; i < games; i++) {
+                    new Listener(new MessageDecoder(
+                            new ByteArrayInputStream(trace)), newModel()).run();
+                }
+            } finally {
+                Log.setLevel(Log.Level.INFO);
+            }
+        });
+        add("listener.dispatch.queued", count -> {
+            int games = Math.max(1, count / (3 * DIM * DIM));
+            Log.setLevel(Log.Level.OFF);
+            try {
+                for (int i = 0; i < games; i++) {
+                    new Listener(new MessageDecoder(
+                            new ByteArrayInputStream(trace)), newModel(),
+                            new InboundQueue(InboundQueue.Policy.BLOCK,
+                                    InboundQueue.DEFAULT_CAPACITY)).run();
+                }
+            } finally {
+                Log.setLevel(Log.Level.INFO);
+            }
+        });
+        addDispatchCases(mask);
+//        one operation is one catch up, the same at any game length.
+        short[] shown = new short[DIM * DIM];
+        boolean[] faceUp = new boolean[DIM * DIM];
+        for (int cell = 0; cell < shown.length; cell++) {
+            shown[cell] = (short) (cell / 2);
+            faceUp[cell] = cell < shown.length / 2;
+        }
+        byte[] snapshot = Base64.getDecoder().decode(SnapshotCodec.encode(DIM,
+                shown, faceUp, faceUp, 1000, DIM * DIM / 4, false));
+        ConcentrationModel synced = newModel();
+        add("sync.snapshot", count -> {
+            for (int i = 0; i < count; i++) {
+                synced.restore(SnapshotCodec.decode(snapshot), i);
+            }
+        });
+//        one operation is one whole game, played on this thread only.
+        for (String strategy : List.of("random", "perfect", "limited")) {
+            GameSimulator simulator = new GameSimulator(DIM,
+                    BotStrategy.forName(strategy), new Random(1));
+            add("sim.game." + strategy, count -> {
+                for (int i = 0; i < count; i++) {
+                    simulator.play();
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Adds a case per event for an Observer, reached through the bridge
+     * and comparing action strings, and for a BoardObserver switching on
+     * the event.
+     *
+     * @param mask    maps an operation number to a cell
+     *
+     */
+    private void addDispatchCases(int mask) {
+        long[] seen = new long[BoardEvent.values().length];
+        ConcentrationModel legacy = newModel();
+        legacy.addObserver((model, row, col, action) -> {
+            if (action.equals(ConcentrationModel.CREATE)) {
+                seen[0]++;
+            }
+            else if (action.equals(ConcentrationModel.NOTMATCHED)) {
+                seen[1]++;
+            }
+            else if (action.equals(ConcentrationModel.MATCHED)) {
+                seen[2]++;
+            }
+            else if (action.equals(ConcentrationModel.GAMEOVER)) {
+                seen[3]++;
+            }
+            else {
+                seen[4]++;
+            }
+        });
+        ConcentrationModel typed = newModel();
+        typed.addBoardObserver((model, event, cell, cardId) -> {
+            switch (event) {
+                case CREATE -> seen[0]++;
+                case NOT_MATCHED -> seen[1]++;
+                case MATCHED -> seen[2]++;
+                case GAME_OVER -> seen[3]++;
+                default -> seen[4]++;
+            }
+        });
+        for (ConcentrationModel model : List.of(legacy, typed)) {
+            String api = model == legacy ? "observer.legacy." : "observer.typed.";
+            add(api + "notMatched", count -> {
+                for (int i = 0; i < count; i++) {
+                    int cell = i & mask;
+                    model.revealCard(cell / DIM, cell % DIM, cell / 2);
+                }
+            });
+            add(api + "matched", count -> {
+                for (int i = 0; i < count; i += 2) {
+                    int cell = i & mask;
+                    model.matchCards(cell / DIM, cell % DIM,
+                            DIM - 1 - cell / DIM, DIM - 1 - cell % DIM);
+                }
+            });
+            add(api + "gameOver", count -> {
+                for (int i = 0; i < count; i++) {
+                    model.setGameOver();
+                }
+            });
+            add(api + "connected", count -> {
+                for (int i = 0; i < count; i++) {
+                    model.setConnected(true);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * The main method.
+     *
+     * @param args    command line arguments
+     * @throws Exception if a case fails
+     *
+     */
+    public static void main(String[] args) throws Exception {
+        File baseline = null;
+        boolean save = false;
+        for (String arg : args) {
+            if (arg.equals("--save")) {
+                save = true;
+            }
+            else {
+                baseline = new File(arg);
+            }
+        }
+        Properties previous = new Properties();
+        if (baseline != null && baseline.exists()) {
+            try (Reader in = new FileReader(baseline)) {
+                previous.load(in);
+            }
+        }
+        Properties results = new HotPathBenchmark().runAll(previous);
+        if (save && baseline != null) {
+            try (Writer out = new FileWriter(baseline)) {
+                results.store(out, "ns/op and bytes/op per case, java "
+                        + System.getProperty("java.vm.version") + " on "
+                        + Runtime.getRuntime().availableProcessors()
+                        + " processors");
+            }
+            System.out.println("Baseline saved to " + baseline);
+        }
+    }
+
+
+    /**
+     * Adds a case.
+     *
+     * @param name             name of the case
+     * @param benchmarkCase    the case
+     *
+     */
+    public void add(String name, BenchmarkCase benchmarkCase) {
+        cases.put(name, benchmarkCase);
+    }
+
+
+    /**
+     * Runs every case and prints its results next to the baseline.
+     * Console output of the code under test is discarded while timing.
+     *
+     * @param baseline    earlier results, may be empty
+     * @return the results of this run
+     * @throws Exception if a case fails
+     *
+     */
+    public Properties runAll(Properties baseline) throws Exception {
+        Properties results = new Properties();
+        PrintStream console = System.out;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        console.printf("%-30s %12s %12s %12s%n", "case", "ns/op", "bytes/op",
+                "baseline");
+        for (Map.Entry<String, BenchmarkCase> entry : cases.entrySet()) {
+            String name = entry.getKey();
+            double[] result;
+            System.setOut(discard);
+            try {
+                result = measure(entry.getValue());
+            } finally {
+//                lines still queued would be written to the console.
+                Log.flush();
+                System.setOut(console);
+            }
+            results.setProperty(name + ".ns", String.format("%.1f", result[0]));
+            results.setProperty(name + ".bytes",
+                    String.format("%.1f", result[1]));
+            String before = baseline.getProperty(name + ".ns");
+            String verdict = "";
+            if (before != null) {
+                double ratio = result[0] / Double.parseDouble(before);
+                verdict = String.format("%.2fx%s", ratio,
+                        ratio > REGRESSION ? " REGRESSION" : "");
+            }
+            console.printf("%-30s %12.1f %12.1f %12s%n", name, result[0],
+                    result[1], verdict);
+        }
+        return results;
+    }
+
+
+    /**
+     * Times a case.
+     *
+     * @param benchmarkCase    the case
+     * @return median ns/op and bytes allocated per op
+     * @throws Exception if the case fails
+     *
+     */
+    private static double[] measure(BenchmarkCase benchmarkCase)
+            throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            benchmarkCase.run(OPERATIONS);
+        }
+        double[] nanos = new double[ROUNDS];
+        long allocated = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            benchmarkCase.run(OPERATIONS);
+            nanos[i] = (double) (System.nanoTime() - start) / OPERATIONS;
+            allocated += allocatedBytes() - bytesBefore;
+        }
+        Arrays.sort(nanos);
+        return new double[] {nanos[ROUNDS / 2],
+                (double) allocated / ((long) ROUNDS * OPERATIONS)};
+    }
+
+
+    /**
+     * Gets the bytes allocated so far by the current thread.
+     *
+     * @return allocated bytes, or 0 if the JVM does not report them
+     *
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean()
+                instanceof com.sun.management.ThreadMXBean threads) {
+            return threads.getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+
+    /**
+     * Creates a model with a board and no observers.
+     *
+     * @return the model
+     *
+     */
+    private static ConcentrationModel newModel() {
+        ConcentrationModel model = new ConcentrationModel(DIM);
+        model.createBoard(DIM);
+        return model;
+    }
+
+
+    /**
+     * Builds the bytes of a server session: a CARD, a MISMATCH and a
+     * MATCH for every card, then GAME_OVER.
+     *
+     * @param cards         CARD messages
+     * @param mismatches    MISMATCH messages
+     * @param matches       MATCH messages
+     * @return the encoded session
+     *
+     */
+    private static byte[] trace(String[] cards, String[] mismatches,
+                                String[] matches) {
+        StringBuilder trace = new StringBuilder();
+        for (int cell = 0; cell < cards.length; cell++) {
+            trace.append(cards[cell]).append('\n')
+                    .append(mismatches[cell]).append('\n')
+                    .append(matches[cell]).append('\n');
+        }
+        trace.append(GAME_OVER).append('\n');
+        return trace.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,276 @@
+/*
+Homework 11 : Concentration GUI
+File Name : BotClient.java
+ */
+package bot;
+
+import common.ConcentrationException;
+import controller.ConcentrationController;
+import model.BoardState;
+import model.ConcentrationModel;
+import model.Observer;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import static model.ConcentrationModel.*;
+
+/**
+ * A headless player.
+ * Connects through a ConcentrationController like the GUI does, observes
+ * its own model, and lets a BotStrategy pick every card to reveal.
+ * Records moves and games completed; the time from sending a REVEAL to
+ * receiving the matching CARD is recorded by the controller in the
+ * metrics registry.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class BotClient implements Observer<ConcentrationModel> {
+
+    /** the hostname */
+    private final String hostName;
+    /** the port number */
+    private final int portNumber;
+    /** picks the cards to reveal */
+    private final BotStrategy strategy;
+    /** pause before each move, in milliseconds */
+    private final long thinkMillis;
+    /** runs delayed moves */
+    private final ScheduledExecutorService scheduler;
+    /** makes the threads reading from the server */
+    private final ThreadFactory listenerThreads;
+    /** source of random choices */
+    private final Random random;
+
+    /** controller of the current game */
+    private ConcentrationController controller;
+    /** board dimension of the current game */
+    private int DIM;
+    /** cell revealed first this turn, -1 if none */
+    private int firstCell = -1;
+    /** cards of the current turn that were hidden or matched */
+    private int settledCards;
+    /** pairs matched in the current game */
+    private int matchedPairs;
+    /** counted down when the current game ends */
+    private CountDownLatch gameDone;
+
+    /** number of REVEAL messages sent */
+    private long moves;
+    /** number of games played to the end */
+    private long gamesCompleted;
+
+
+    /**
+     * Constructor
+     *
+     * @param hostName           the hostname
+     * @param portNumber         the port number
+     * @param strategy           picks the cards to reveal
+     * @param thinkMillis        pause before each move, in milliseconds
+     * @param scheduler          runs delayed moves
+     * @param listenerThreads    makes the threads reading from the server
+     * @param seed               seed for random choices
+     */
+    public BotClient(String hostName, int portNumber, BotStrategy strategy,
+                     long thinkMillis, ScheduledExecutorService scheduler,
+                     ThreadFactory listenerThreads, long seed) {
+        this.hostName = hostName;
+        this.portNumber = portNumber;
+        this.strategy = strategy;
+        this.thinkMillis = thinkMillis;
+        this.scheduler = scheduler;
+        this.listenerThreads = listenerThreads;
+        this.random = new Random(seed);
+    }
+
+
+    /**
+     * Plays games one after another until the deadline passes.
+     *
+     * @param deadline    end time, from System.nanoTime()
+     * @throws InterruptedException if interrupted while waiting for a game
+     *
+     */
+    public void play(long deadline) throws InterruptedException {
+        while (System.nanoTime() < deadline) {
+            try {
+                if (playGame(deadline)) {
+                    synchronized (this) {
+                        gamesCompleted++;
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("bot connection failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * Plays one game on a new connection.
+     *
+     * @param deadline    time to give up, from System.nanoTime()
+     * @return true if the game was played to the end.
+     * @throws IOException if the connection fails
+     * @throws InterruptedException if interrupted while waiting
+     *
+     */
+    private boolean playGame(long deadline) throws IOException,
+            InterruptedException {
+        ConcentrationModel model = new ConcentrationModel();
+        model.addObserver(this);
+        CountDownLatch done = new CountDownLatch(1);
+        synchronized (this) {
+            gameDone = done;
+            controller = new ConcentrationController(hostName, portNumber,
+                    model);
+            controller.setListenerThreads(listenerThreads);
+        }
+        try {
+            controller.begin();
+            return done.await(deadline - System.nanoTime(),
+                    TimeUnit.NANOSECONDS);
+        } finally {
+            controller.close();
+        }
+    }
+
+
+    /**
+     * Reacts to the model: starts a game, records revealed cards, moves
+     * on once a turn is settled and stops at game over.
+     *
+     * @param model     the model
+     * @param row       row
+     * @param col       column
+     * @param action    action performed
+     *
+     */
+    @Override
+    public synchronized void update(ConcentrationModel model, int row,
+                                    int col, String action) {
+        switch (action) {
+            case CREATE -> startGame(row);
+            case NOTMATCHED -> {
+                BoardState board = model.getBoard();
+                int cell = row * DIM + col;
+                if (board.isFaceUp(row, col)) {
+                    cardRevealed(cell, board.getCard(row, col));
+                }
+                else if (++settledCards == 2) {
+                    endTurn();
+                }
+            }
+            case MATCHED -> {
+                if (++settledCards == 2) {
+                    strategy.cardsMatched(firstCell, row * DIM + col);
+                    if (++matchedPairs < DIM * DIM / 2) {
+                        endTurn();
+                    }
+                }
+            }
+            case GAMEOVER -> gameDone.countDown();
+        }
+    }
+
+
+    /**
+     * Resets the turn state for a new game and makes the first move.
+     *
+     * @param boardDimension    board dimension
+     *
+     */
+    private void startGame(int boardDimension) {
+        DIM = boardDimension;
+        firstCell = -1;
+        settledCards = 0;
+        matchedPairs = 0;
+        strategy.reset(boardDimension, random);
+        scheduleMove();
+    }
+
+
+    /**
+     * Records a revealed card and picks the second card if needed.
+     *
+     * @param cell      the cell
+     * @param cardId    id of the card
+     *
+     */
+    private void cardRevealed(int cell, int cardId) {
+        strategy.cardRevealed(cell, cardId);
+        if (firstCell < 0) {
+            firstCell = cell;
+            scheduleMove();
+        }
+    }
+
+
+    /**
+     * Starts the next turn.
+     *
+     */
+    private void endTurn() {
+        firstCell = -1;
+        settledCards = 0;
+        scheduleMove();
+    }
+
+
+    /**
+     * Makes the next move now, or after the think time.
+     *
+     */
+    private void scheduleMove() {
+        if (thinkMillis > 0) {
+            scheduler.schedule(this::move, thinkMillis, TimeUnit.MILLISECONDS);
+        }
+        else {
+            scheduler.execute(this::move);
+        }
+    }
+
+
+    /**
+     * Asks the strategy for a card and reveals it.
+     *
+     */
+    private synchronized void move() {
+        int cell = strategy.nextCell(firstCell);
+        if (cell < 0) {
+            gameDone.countDown();
+            return;
+        }
+        try {
+            controller.sendToServer(cell / DIM, cell % DIM);
+            moves++;
+        } catch (IOException | ConcentrationException e) {
+            gameDone.countDown();
+        }
+    }
+
+
+    /**
+     * Get number of REVEAL messages sent.
+     *
+     * @return number of moves
+     */
+    public synchronized long getMoves() {
+        return moves;
+    }
+
+
+    /**
+     * Get number of games played to the end.
+     *
+     * @return games completed
+     */
+    public synchronized long getGamesCompleted() {
+        return gamesCompleted;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+Homework 11 : Concentration GUI
+File Name : BotStrategy.java
+ */
+package bot;
+
+import java.util.Random;
+
+/**
+ * Decides which card a bot reveals next.
+ * Cards are addressed by cell, row * DIM + col, and identified by the
+ * card id the model gives them.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public interface BotStrategy {
+
+    /**
+     * Starts a new game.
+     *
+     * @param boardDimension    board dimension
+     * @param random            source of random choices
+     *
+     */
+    void reset(int boardDimension, Random random);
+
+    /**
+     * Picks the next card to reveal.
+     *
+     * @param firstCell    cell of the card already revealed this turn,
+     *                     or -1 when picking the first card
+     * @return the cell to reveal, or -1 if no card is left
+     *
+     */
+    int nextCell(int firstCell);
+
+    /**
+     * Called when the server reveals a card.
+     *
+     * @param cell      the cell
+     * @param cardId    id of the card
+     *
+     */
+    void cardRevealed(int cell, int cardId);
+
+    /**
+     * Called when two cards are matched.
+     *
+     * @param cell1    cell of first card
+     * @param cell2    cell of second card
+     *
+     */
+    void cardsMatched(int cell1, int cell2);
+
+
+    /**
+     * Creates a strategy from its command line name.
+     *
+     * @param name    random, perfect, or limited:N to remember the last N
+     *                cards, N at least 1, limited alone remembers a few
+     * @return the strategy
+     * @throws IllegalArgumentException if the name or N is not valid
+     *
+     */
+    static BotStrategy forName(String name) {
+        if (name.startsWith("limited:")) {
+            return new LimitedMemoryStrategy(Integer.parseInt(
+                    name.substring("limited:".length())));
+        }
+        return switch (name) {
+            case "random" -> new RandomStrategy();
+            case "perfect" -> new PerfectMemoryStrategy();
+            case "limited" -> new LimitedMemoryStrategy(
+                    LimitedMemoryStrategy.DEFAULT_CAPACITY);
+            default -> throw new IllegalArgumentException(
+                    "unknown strategy: " + name);
+        };
+    }
+}
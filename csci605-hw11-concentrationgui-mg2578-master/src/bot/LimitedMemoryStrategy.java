@@ -0,0 +1,205 @@
+/*
+Homework 11 : Concentration GUI
+File Name : LimitedMemoryStrategy.java
+ */
+package bot;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Plays like PerfectMemoryStrategy but only remembers the last few cards
+ * it saw, the way a person forgets. Older cards are forgotten as new ones
+ * are revealed; matched cards are forgotten at once.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class LimitedMemoryStrategy implements BotStrategy {
+
+    /** number of cards remembered when not told otherwise */
+    public static final int DEFAULT_CAPACITY = 6;
+    /** tries at picking a card not remembered before taking any card */
+    private static final int PICK_TRIES = 8;
+
+    /** number of cards remembered */
+    private final int capacity;
+    /** remembered cells, oldest overwritten first, -1 if empty */
+    private final int[] memoryCells;
+    /** card id of each remembered cell */
+    private final int[] memoryCards;
+    /** slot the next card is remembered in */
+    private int next;
+    /** cells that are not matched yet, the first remaining of them in use */
+    private int[] unmatched;
+    /** number of cells not matched yet */
+    private int remaining;
+    /** position of each cell in unmatched */
+    private int[] position;
+    /** source of random choices */
+    private Random random;
+
+
+    /**
+     * Constructor.
+     *
+     * @param capacity    number of cards remembered, at least 1
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public LimitedMemoryStrategy(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("limited:" + capacity
+                    + " must remember at least one card");
+        }
+        this.capacity = capacity;
+        this.memoryCells = new int[capacity];
+        this.memoryCards = new int[capacity];
+    }
+
+
+    @Override
+    public void reset(int boardDimension, Random random) {
+        int cells = boardDimension * boardDimension;
+        this.random = random;
+        Arrays.fill(memoryCells, -1);
+        next = 0;
+        unmatched = new int[cells];
+        position = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            unmatched[cell] = cell;
+            position[cell] = cell;
+        }
+        remaining = cells;
+    }
+
+
+    @Override
+    public int nextCell(int firstCell) {
+        if (remaining == 0 || (firstCell >= 0 && remaining == 1)) {
+            return -1;
+        }
+        if (firstCell < 0) {
+            int pair = rememberedPair();
+            return pair >= 0 ? pair : pickForgotten(-1);
+        }
+        int slot = slotOf(firstCell);
+        if (slot >= 0) {
+            for (int i = 0; i < capacity; i++) {
+                if (i != slot && memoryCells[i] >= 0
+                        && memoryCards[i] == memoryCards[slot]) {
+                    return memoryCells[i];
+                }
+            }
+        }
+        return pickForgotten(firstCell);
+    }
+
+
+    @Override
+    public void cardRevealed(int cell, int cardId) {
+        if (slotOf(cell) >= 0) {
+            return;
+        }
+        memoryCells[next] = cell;
+        memoryCards[next] = cardId;
+        next = (next + 1) % capacity;
+    }
+
+
+    @Override
+    public void cardsMatched(int cell1, int cell2) {
+        forget(cell1);
+        forget(cell2);
+        remove(cell1);
+        remove(cell2);
+    }
+
+
+    /**
+     * Finds two remembered cards of the same pair.
+     *
+     * @return cell of one card of the pair, or -1 if none is remembered
+     *
+     */
+    private int rememberedPair() {
+        for (int i = 0; i < capacity; i++) {
+            if (memoryCells[i] < 0) {
+                continue;
+            }
+            for (int j = i + 1; j < capacity; j++) {
+                if (memoryCells[j] >= 0 && memoryCards[j] == memoryCards[i]) {
+                    return memoryCells[i];
+                }
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Picks a random unmatched cell, preferring ones not remembered.
+     *
+     * @param exclude    cell not to pick
+     * @return the cell
+     *
+     */
+    private int pickForgotten(int exclude) {
+        int cell;
+        int tries = 0;
+        do {
+            cell = unmatched[random.nextInt(remaining)];
+        } while (cell == exclude
+                || (slotOf(cell) >= 0 && ++tries < PICK_TRIES));
+        return cell;
+    }
+
+
+    /**
+     * Finds where a cell is remembered.
+     *
+     * @param cell    the cell
+     * @return its slot, or -1 if it is not remembered
+     *
+     */
+    private int slotOf(int cell) {
+        for (int i = 0; i < capacity; i++) {
+            if (memoryCells[i] == cell) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Forgets a cell.
+     *
+     * @param cell    the cell
+     *
+     */
+    private void forget(int cell) {
+        int slot = slotOf(cell);
+        if (slot >= 0) {
+            memoryCells[slot] = -1;
+        }
+    }
+
+
+    /**
+     * Removes a cell from the unmatched cells.
+     *
+     * @param cell    the cell
+     *
+     */
+    private void remove(int cell) {
+        int index = position[cell];
+        if (index >= remaining || unmatched[index] != cell) {
+            return;
+        }
+        int last = unmatched[--remaining];
+        unmatched[index] = last;
+        position[last] = index;
+        unmatched[remaining] = cell;
+        position[cell] = remaining;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+Homework 11 : Concentration GUI
+File Name : LoadGenerator.java
+ */
+package bot;
+
+import logging.Log;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many headless BotClients against a server at once and reports
+ * moves per second, REVEAL to CARD round trip percentiles and games
+ * completed. No JavaFX is started.
+ *
+ * Usage: java bot.LoadGenerator host port [--clients=N] [--duration=S]
+ *        [--think=MS] [--strategy=random|perfect|limited[:N]]
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class LoadGenerator {
+
+    /** number of bot clients */
+    private int clients = 100;
+    /** how long to run, in seconds */
+    private long durationSeconds = 30;
+    /** pause before each move, in milliseconds */
+    private long thinkMillis = 0;
+    /** name of the strategy the bots use */
+    private String strategy = "random";
+
+
+    /**
+     * The main method.
+     *
+     * @param args    command line arguments
+     * @throws InterruptedException if interrupted while bots are running
+     *
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java bot.LoadGenerator <host name> "
+                    + "<port number> [--clients=N] [--duration=S] "
+                    + "[--think=MS] "
+                    + "[--strategy=random|perfect|limited[:N]]");
+            System.exit(1);
+        }
+        LoadGenerator generator = new LoadGenerator();
+        for (int i = 2; i < args.length; i++) {
+            generator.parseOption(args[i]);
+        }
+        generator.run(args[0], Integer.parseInt(args[1]));
+        if (Log.getDropped() > 0) {
+            System.out.println("Log lines dropped: " + Log.getDropped());
+        }
+        Log.flush();
+    }
+
+
+    /**
+     * Reads one --name=value option.
+     *
+     * @param option    the option
+     *
+     */
+    private void parseOption(String option) {
+        int equals = option.indexOf('=');
+        if (!option.startsWith("--") || equals < 0) {
+            throw new IllegalArgumentException("bad option: " + option);
+        }
+        String value = option.substring(equals + 1);
+        switch (option.substring(2, equals)) {
+            case "clients" -> clients = Integer.parseInt(value);
+            case "duration" -> durationSeconds = Long.parseLong(value);
+            case "think" -> thinkMillis = Long.parseLong(value);
+            case "strategy" -> {
+//                fail on a bad name before any bot starts.
+                BotStrategy.forName(value);
+                strategy = value;
+            }
+            default -> throw new IllegalArgumentException("bad option: "
+                    + option);
+        }
+    }
+
+
+    /**
+     * Runs all bots until the duration has passed and prints a report.
+     *
+     * @param hostName      the hostname
+     * @param portNumber    the port number
+     * @throws InterruptedException if interrupted while bots are running
+     *
+     */
+    private void run(String hostName, int portNumber)
+            throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+                Runtime.getRuntime().availableProcessors());
+        ExecutorService players = newPlayerExecutor();
+        ThreadFactory listenerThreads = newListenerThreads();
+        List<BotClient> bots = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (int i = 0; i < clients; i++) {
+            BotClient bot = new BotClient(hostName, portNumber,
+                    BotStrategy.forName(strategy), thinkMillis, scheduler,
+                    listenerThreads, i);
+            bots.add(bot);
+            players.execute(() -> {
+                try {
+                    bot.play(deadline);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        players.shutdown();
+        players.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+        scheduler.shutdownNow();
+        report(bots, System.nanoTime() - start);
+    }
+
+
+    /**
+     * Creates the executor that runs one task per bot.
+     * Uses a virtual thread per task when the JVM has them, else a
+     * platform thread per task.
+     *
+     * @return the executor
+     *
+     */
+    private static ExecutorService newPlayerExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod(
+                    "newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+
+    /**
+     * Creates the factory for the threads reading from the server.
+     * Makes virtual threads when the JVM has them, so each connection
+     * does not hold a platform thread, else daemon platform threads.
+     *
+     * @return the thread factory
+     *
+     */
+    private static ThreadFactory newListenerThreads() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return runnable -> {
+                Thread thread = new Thread(runnable, "bot-listener");
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+
+    /**
+     * Prints moves per second, round trip percentiles and games completed.
+     *
+     * @param bots       the bots
+     * @param elapsed    run time in nanoseconds
+     *
+     */
+    private static void report(List<BotClient> bots, long elapsed) {
+        long moves = 0;
+        long games = 0;
+        for (BotClient bot : bots) {
+            moves += bot.getMoves();
+            games += bot.getGamesCompleted();
+        }
+        Histogram roundTrips = MetricsRegistry.get().histogram(
+                MetricsRegistry.SEND_TO_CARD);
+        double seconds = elapsed / 1e9;
+        System.out.printf("clients: %d, time: %.1f s%n", bots.size(), seconds);
+        System.out.printf("moves: %d (%.1f per second)%n", moves,
+                moves / seconds);
+        System.out.println("games completed: " + games);
+        System.out.println("round trip: " + roundTrips.toMillis());
+    }
+}
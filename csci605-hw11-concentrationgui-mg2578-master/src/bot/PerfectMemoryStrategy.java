@@ -0,0 +1,154 @@
+/*
+Homework 11 : Concentration GUI
+File Name : PerfectMemoryStrategy.java
+ */
+package bot;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Remembers every card it has seen.
+ * Turns over a known pair whenever it has one, completes a pair as soon
+ * as the first card's partner is known, and otherwise reveals a card it
+ * has not seen yet.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class PerfectMemoryStrategy implements BotStrategy {
+
+    /** card id seen in each cell, -1 if not seen */
+    private int[] seen;
+    /** whether each cell is matched */
+    private boolean[] matched;
+    /** cells seen so far for each card id, -1 if none */
+    private int[][] cellsOfCard;
+    /** cells not seen yet */
+    private int[] unseen;
+    /** number of cells not seen yet */
+    private int unseenCount;
+    /** source of random choices */
+    private Random random;
+
+
+    @Override
+    public void reset(int boardDimension, Random random) {
+        int cells = boardDimension * boardDimension;
+        this.random = random;
+        seen = new int[cells];
+        Arrays.fill(seen, -1);
+        matched = new boolean[cells];
+        cellsOfCard = new int[0][];
+        unseen = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            unseen[cell] = cell;
+        }
+        unseenCount = cells;
+    }
+
+
+    @Override
+    public int nextCell(int firstCell) {
+        if (firstCell < 0) {
+            int pair = knownPair();
+            return pair >= 0 ? pair : randomUnseen(-1);
+        }
+        int cardId = seen[firstCell];
+        if (cardId >= 0 && cardId < cellsOfCard.length) {
+            for (int cell : cellsOfCard[cardId]) {
+                if (cell >= 0 && cell != firstCell && !matched[cell]) {
+                    return cell;
+                }
+            }
+        }
+        int cell = randomUnseen(firstCell);
+        if (cell >= 0) {
+            return cell;
+        }
+//        nothing unseen is left, turn over any other unmatched card.
+        for (cell = 0; cell < matched.length; cell++) {
+            if (!matched[cell] && cell != firstCell) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+
+    @Override
+    public void cardRevealed(int cell, int cardId) {
+        if (seen[cell] >= 0) {
+            return;
+        }
+        seen[cell] = cardId;
+        for (int i = 0; i < unseenCount; i++) {
+            if (unseen[i] == cell) {
+                unseen[i] = unseen[--unseenCount];
+                break;
+            }
+        }
+        if (cardId >= cellsOfCard.length) {
+            int oldLength = cellsOfCard.length;
+            cellsOfCard = Arrays.copyOf(cellsOfCard,
+                    Math.max(cardId + 1, oldLength * 2));
+            for (int id = oldLength; id < cellsOfCard.length; id++) {
+                cellsOfCard[id] = new int[] {-1, -1};
+            }
+        }
+        int[] cells = cellsOfCard[cardId];
+        if (cells[0] < 0) {
+            cells[0] = cell;
+        } else if (cells[1] < 0) {
+            cells[1] = cell;
+        }
+    }
+
+
+    @Override
+    public void cardsMatched(int cell1, int cell2) {
+        matched[cell1] = true;
+        matched[cell2] = true;
+    }
+
+
+    /**
+     * Finds a pair of seen cards that are not matched yet.
+     *
+     * @return cell of one card of the pair, or -1 if none is known
+     *
+     */
+    private int knownPair() {
+        for (int[] cells : cellsOfCard) {
+            if (cells[1] >= 0 && !matched[cells[0]]) {
+                return cells[0];
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Picks a random cell that has not been seen yet.
+     *
+     * @param exclude    cell not to pick
+     * @return the cell, or -1 if none is left
+     *
+     */
+    private int randomUnseen(int exclude) {
+        int choices = unseenCount;
+        for (int i = 0; i < unseenCount; i++) {
+            if (unseen[i] == exclude) {
+                choices--;
+            }
+        }
+        if (choices == 0) {
+            return -1;
+        }
+        int cell;
+        do {
+            cell = unseen[random.nextInt(unseenCount)];
+        } while (cell == exclude);
+        return cell;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+Homework 11 : Concentration GUI
+File Name : RandomStrategy.java
+ */
+package bot;
+
+import java.util.Random;
+
+/**
+ * Reveals random unmatched cards and remembers nothing else.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class RandomStrategy implements BotStrategy {
+
+    /** cells that are not matched yet, the first remaining of them in use */
+    private int[] unmatched;
+    /** number of cells not matched yet */
+    private int remaining;
+    /** position of each cell in unmatched */
+    private int[] position;
+    /** source of random choices */
+    private Random random;
+
+
+    @Override
+    public void reset(int boardDimension, Random random) {
+        int cells = boardDimension * boardDimension;
+        this.random = random;
+        unmatched = new int[cells];
+        position = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            unmatched[cell] = cell;
+            position[cell] = cell;
+        }
+        remaining = cells;
+    }
+
+
+    @Override
+    public int nextCell(int firstCell) {
+        if (remaining == 0 || (firstCell >= 0 && remaining == 1)) {
+            return -1;
+        }
+        int cell;
+        do {
+            cell = unmatched[random.nextInt(remaining)];
+        } while (cell == firstCell);
+        return cell;
+    }
+
+
+    @Override
+    public void cardRevealed(int cell, int cardId) {
+//        random play does not remember cards.
+    }
+
+
+    @Override
+    public void cardsMatched(int cell1, int cell2) {
+        remove(cell1);
+        remove(cell2);
+    }
+
+
+    /**
+     * Removes a cell from the unmatched cells.
+     *
+     * @param cell    the cell
+     *
+     */
+    private void remove(int cell) {
+        int index = position[cell];
+        if (index >= remaining || unmatched[index] != cell) {
+            return;
+        }
+        int last = unmatched[--remaining];
+        unmatched[index] = last;
+        position[last] = index;
+        unmatched[remaining] = cell;
+        position[cell] = remaining;
+    }
+}
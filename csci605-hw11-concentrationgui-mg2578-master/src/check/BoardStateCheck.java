@@ -0,0 +1,119 @@
+/*
+Homework 11 : Concentration GUI
+File Name : BoardStateCheck.java
+ */
+package check;
+
+import controller.Listener;
+import controller.MessageDecoder;
+import logging.Log;
+import model.BoardState;
+import model.ConcentrationModel;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checks that the board rejects cards it does not hold.
+ * Rows and columns outside the board, and card ids that do not fit its
+ * cells, must throw IllegalArgumentException naming the bad value
+ * instead of changing another cell. A server message with such a card
+ * must be skipped by the listener, leaving the board as it was.
+ *
+ * Usage: java check.BoardStateCheck
+ * (with the source folder on the class path, for the card images)
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class BoardStateCheck {
+
+    /** board dimension */
+    private static final int DIM = 4;
+
+
+    /**
+     * A change to the board that may be rejected.
+     *
+     */
+    private interface Change {
+
+        /**
+         * Makes the change.
+         *
+         * @param board    the board
+         * @return the new board
+         *
+         */
+        BoardState apply(BoardState board);
+    }
+
+
+    /**
+     * Runs the checks.
+     *
+     * @param args    unused
+     *
+     */
+    public static void main(String[] args) {
+        Log.setLevel(Log.Level.OFF);
+        BoardState board = BoardState.empty(DIM);
+        checkRejected("reveal 0 5", "0 5", b -> b.reveal(0, 5, 0));
+        checkRejected("reveal -1 0", "-1 0", b -> b.reveal(-1, 0, 0));
+        checkRejected("reveal 4 0", "4 0", b -> b.reveal(4, 0, 0));
+        checkRejected("reveal 0 -1", "0 -1", b -> b.reveal(0, -1, 0));
+        checkRejected("reveal far off the board", "100000 0",
+                b -> b.reveal(100_000, 0, 0));
+        checkRejected("reveal card id 32768", "32768",
+                b -> b.reveal(0, 0, Short.MAX_VALUE + 1));
+        checkRejected("hide with second card off the board", "1 4",
+                b -> b.hide(0, 0, 1, 4));
+        checkRejected("match with first card off the board", "4 4",
+                b -> b.match(4, 4, 0, 0));
+
+        BoardState corner = board.reveal(DIM - 1, DIM - 1, 3);
+        Checks.check(corner.isFaceUp(DIM - 1, DIM - 1)
+                        && corner.getCard(DIM - 1, DIM - 1) == 3,
+                "reveal of the last cell is taken");
+        BoardState matched = corner.reveal(0, 0, 3).match(0, 0, DIM - 1,
+                DIM - 1);
+        Checks.check(matched.isMatched(0, 0)
+                        && matched.isMatched(DIM - 1, DIM - 1)
+                        && matched.getMatches() == 1,
+                "match of the first and last cells is taken");
+
+        ConcentrationModel model = GameTrace.newModel(DIM);
+        String messages = "CARD 0 5 A\nCARD 1 1 B\nGAME_OVER\n";
+        new Listener(new MessageDecoder(new ByteArrayInputStream(
+                messages.getBytes(StandardCharsets.US_ASCII))), model).run();
+        BoardState after = model.getBoard();
+        Checks.check(after.getCard(1, 1) == ConcentrationModel.cardId("B")
+                        && after.getNumMoves() == 1 && after.getGameOver(),
+                "listener skips a CARD off the board and applies the rest");
+        Checks.exit();
+    }
+
+
+    /**
+     * Checks that a change throws IllegalArgumentException naming the bad
+     * value.
+     *
+     * @param what      the change, for the report
+     * @param value     text the message must contain
+     * @param change    the change
+     *
+     */
+    private static void checkRejected(String what, String value,
+                                      Change change) {
+        String message = null;
+        try {
+            change.apply(BoardState.empty(DIM));
+        } catch (IllegalArgumentException e) {
+            message = e.getMessage();
+        } catch (RuntimeException e) {
+            message = "wrong exception " + e;
+        }
+        Checks.check(message != null && message.contains(value)
+                        && !message.startsWith("wrong exception"),
+                what + " is rejected (" + message + ")");
+    }
+}
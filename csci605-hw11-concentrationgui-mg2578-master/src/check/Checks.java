@@ -0,0 +1,54 @@
+/*
+Homework 11 : Concentration GUI
+File Name : Checks.java
+ */
+package check;
+
+/**
+ * Counts the results of the main() based checks.
+ * The project has no test framework, so each check is a program that
+ * prints one line per condition and exits with a non-zero status if any
+ * of them failed.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public final class Checks {
+
+    /** number of failed conditions */
+    private static int failures;
+
+
+    /**
+     * Constructor.
+     * Only static methods.
+     *
+     */
+    private Checks() {}
+
+
+    /**
+     * Reports one condition.
+     *
+     * @param passed    true if the condition holds
+     * @param what      what was checked
+     *
+     */
+    public static synchronized void check(boolean passed, String what) {
+        System.out.println((passed ? "ok      " : "FAILED  ") + what);
+        if (!passed) {
+            failures++;
+        }
+    }
+
+
+    /**
+     * Ends the program, with status 1 if any condition failed.
+     *
+     */
+    public static synchronized void exit() {
+        System.out.println(failures == 0 ? "all checks passed"
+                : failures + " checks failed");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+Homework 11 : Concentration GUI
+File Name : GameTrace.java
+ */
+package check;
+
+import model.BoardEvent;
+import model.BoardObserver;
+import model.ConcentrationModel;
+import server.ConcentrationGame;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static common.ConcentrationProtocol.*;
+
+/**
+ * Server messages of whole games, and what a model should do with them.
+ * A trace is played by the server's own ConcentrationGame with random
+ * moves, so it holds mismatches, matches and a GAME_OVER like a real
+ * session. Applying it straight to a model, one message after the other,
+ * gives the events every other way of delivering it must reproduce.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public final class GameTrace {
+
+    /**
+     * Constructor.
+     * Only static methods.
+     *
+     */
+    private GameTrace() {}
+
+
+    /**
+     * Plays a game with random moves.
+     *
+     * @param boardDimension    board dimension
+     * @param seed              seed of the board and the moves
+     * @return the messages the server sent, one per line, without
+     *         BOARD_DIM and without errors
+     *
+     */
+    public static String play(int boardDimension, long seed) {
+        Random random = new Random(seed);
+        ConcentrationGame game = new ConcentrationGame(boardDimension,
+                new Random(random.nextLong()));
+        StringBuilder reply = new StringBuilder();
+        StringBuilder trace = new StringBuilder();
+        while (!game.isGameOver()) {
+            reply.setLength(0);
+            game.reveal(random.nextInt(boardDimension),
+                    random.nextInt(boardDimension), reply);
+//            revealing a face up card only gets an error.
+            if (!reply.toString().startsWith(ERROR)) {
+                trace.append(reply);
+            }
+        }
+        return trace.toString();
+    }
+
+
+    /**
+     * Creates a model with its board, ready for the messages of a trace.
+     *
+     * @param boardDimension    board dimension
+     * @return the model
+     *
+     */
+    public static ConcentrationModel newModel(int boardDimension) {
+        ConcentrationModel model = new ConcentrationModel();
+        model.loadImagesInGrid(boardDimension);
+        model.createBoard(boardDimension);
+        return model;
+    }
+
+
+    /**
+     * Applies the messages of a trace to a model in order, on this thread.
+     *
+     * @param trace    the trace
+     * @param model    the model
+     *
+     */
+    public static void apply(String trace, ConcentrationModel model) {
+        for (String line : trace.split("\n")) {
+            String[] words = line.split(" ");
+            switch (words[0]) {
+                case CARD -> model.revealCard(Integer.parseInt(words[1]),
+                        Integer.parseInt(words[2]),
+                        ConcentrationModel.cardId(words[3]));
+                case MATCH -> model.matchCards(Integer.parseInt(words[1]),
+                        Integer.parseInt(words[2]), Integer.parseInt(words[3]),
+                        Integer.parseInt(words[4]));
+                case MISMATCH -> model.hideCards(Integer.parseInt(words[1]),
+                        Integer.parseInt(words[2]), Integer.parseInt(words[3]),
+                        Integer.parseInt(words[4]));
+                case GAME_OVER -> model.setGameOver();
+                default -> throw new IllegalArgumentException(
+                        "not a trace message: " + line);
+            }
+        }
+    }
+
+
+    /**
+     * Records every event of one model, and any event that came from
+     * another model.
+     *
+     */
+    public static class EventLog implements BoardObserver {
+
+        /** the model observed */
+        private final ConcentrationModel owner;
+        /** events seen, as event, cell and card id */
+        private final List<String> events =
+                Collections.synchronizedList(new ArrayList<>());
+        /** events that came from a model other than the owner */
+        private volatile int foreign;
+
+
+        /**
+         * Constructor.
+         * Observes the model from now on.
+         *
+         * @param owner    the model to observe
+         */
+        public EventLog(ConcentrationModel owner) {
+            this.owner = owner;
+            owner.addBoardObserver(this);
+        }
+
+
+        @Override
+        public void onEvent(ConcentrationModel model, BoardEvent event,
+                            int cell, int cardId) {
+            if (model != owner) {
+                foreign++;
+            }
+            events.add(event + " " + cell + " " + cardId);
+        }
+
+
+        /**
+         * Get the events seen so far.
+         *
+         * @return events, in order
+         */
+        public List<String> getEvents() {
+            synchronized (events) {
+                return new ArrayList<>(events);
+            }
+        }
+
+
+        /**
+         * Get number of events that came from another model.
+         *
+         * @return foreign events
+         */
+        public int getForeign() {
+            return foreign;
+        }
+    }
+}
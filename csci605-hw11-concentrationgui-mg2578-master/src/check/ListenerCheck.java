@@ -0,0 +1,164 @@
+/*
+Homework 11 : Concentration GUI
+File Name : ListenerCheck.java
+ */
+package check;
+
+import controller.InboundQueue;
+import controller.Listener;
+import controller.MessageDecoder;
+import logging.Log;
+import model.ConcentrationModel;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that the listener sleeps while the server is quiet and hands
+ * every message to the model in order.
+ * The listener reads from a real loopback socket. It first waits on a
+ * silent server, and the CPU time of its thread over that second must
+ * stay near zero. Then whole games are written to it in chunks of random
+ * size, often cutting a message in two, and the model must see the same
+ * events as a model given the messages one by one. This is done with the
+ * model updated on the listener thread and through an inbound queue.
+ *
+ * Usage: java check.ListenerCheck
+ * (with the source folder on the class path, for the card images)
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class ListenerCheck {
+
+    /** board dimension of the games sent */
+    private static final int DIM = 6;
+    /** games sent to each listener */
+    private static final int GAMES = 20;
+    /** time the server stays silent, in milliseconds */
+    private static final long IDLE_MILLIS = 1000;
+    /** most CPU time the listener may use while idle, in milliseconds */
+    private static final long IDLE_CPU_MILLIS = 50;
+    /** longest chunk written at once, in bytes */
+    private static final int MAX_CHUNK = 64;
+
+
+    /**
+     * Runs the checks.
+     *
+     * @param args    unused
+     * @throws Exception if the loopback connection fails
+     *
+     */
+    public static void main(String[] args) throws Exception {
+//        keep the report readable, every message received is logged.
+        Log.setLevel(Log.Level.ERROR);
+        checkIdle();
+        Random random = new Random(605);
+        for (int game = 0; game < GAMES; game++) {
+            long seed = random.nextLong();
+            checkOrder("inline", null, seed);
+            checkOrder("queued", new InboundQueue(InboundQueue.Policy.BLOCK,
+                    InboundQueue.DEFAULT_CAPACITY), seed);
+        }
+        Checks.exit();
+    }
+
+
+    /**
+     * Checks the CPU time of a listener waiting on a silent server.
+     *
+     * @throws Exception if the loopback connection fails
+     *
+     */
+    private static void checkIdle() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1,
+                InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(),
+                     server.getLocalPort());
+             Socket peer = server.accept()) {
+            ConcentrationModel model = GameTrace.newModel(DIM);
+            Thread listener = new Thread(new Listener(
+                    new MessageDecoder(client.getInputStream()), model),
+                    "listener");
+            listener.start();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+//            let the thread reach its blocking read before measuring.
+            Thread.sleep(100);
+            long before = threads.getThreadCpuTime(listener.getId());
+            Thread.sleep(IDLE_MILLIS);
+            long used = (threads.getThreadCpuTime(listener.getId()) - before)
+                    / 1_000_000;
+            Checks.check(listener.isAlive() && used < IDLE_CPU_MILLIS,
+                    "idle listener used " + used + " ms of CPU in "
+                            + IDLE_MILLIS + " ms");
+            peer.shutdownOutput();
+            listener.join(IDLE_MILLIS);
+            Checks.check(!listener.isAlive(),
+                    "idle listener stops when the server closes");
+        }
+    }
+
+
+    /**
+     * Sends one game to a listener in chunks and compares the events its
+     * model saw with those of a model given the messages directly.
+     *
+     * @param mode     name of the mode, for the report
+     * @param queue    inbound queue, null to update the model inline
+     * @param seed     seed of the game and the chunks
+     * @throws Exception if the loopback connection fails
+     *
+     */
+    private static void checkOrder(String mode, InboundQueue queue,
+                                   long seed) throws Exception {
+        String trace = GameTrace.play(DIM, seed);
+        ConcentrationModel reference = GameTrace.newModel(DIM);
+        GameTrace.EventLog expected = new GameTrace.EventLog(reference);
+        GameTrace.apply(trace, reference);
+
+        ConcentrationModel model = GameTrace.newModel(DIM);
+        GameTrace.EventLog actual = new GameTrace.EventLog(model);
+        try (ServerSocket server = new ServerSocket(0, 1,
+                InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(),
+                     server.getLocalPort());
+             Socket peer = server.accept()) {
+            Thread listener = new Thread(queue == null
+                    ? new Listener(new MessageDecoder(client.getInputStream()),
+                            model)
+                    : new Listener(new MessageDecoder(client.getInputStream()),
+                            model, queue), "listener");
+            listener.start();
+            byte[] bytes = trace.getBytes(StandardCharsets.US_ASCII);
+            Random random = new Random(seed);
+            OutputStream out = peer.getOutputStream();
+            for (int off = 0; off < bytes.length; ) {
+                int length = Math.min(bytes.length - off,
+                        1 + random.nextInt(MAX_CHUNK));
+                out.write(bytes, off, length);
+                out.flush();
+                off += length;
+            }
+            listener.join(10_000);
+            Checks.check(!listener.isAlive(),
+                    mode + " listener stops after GAME_OVER, seed " + seed);
+//            the listener closes its end once the game is over.
+            InputStream in = peer.getInputStream();
+            Checks.check(in.read() == -1,
+                    mode + " listener closes the connection, seed " + seed);
+        }
+        List<String> events = actual.getEvents();
+        Checks.check(events.equals(expected.getEvents()),
+                mode + " listener applied " + events.size() + " events of "
+                        + expected.getEvents().size() + " in order, seed "
+                        + seed);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+Homework 11 : Concentration GUI
+File Name : SessionIsolationCheck.java
+ */
+package check;
+
+import controller.Listener;
+import controller.MessageDecoder;
+import logging.Log;
+import model.BoardState;
+import model.ConcentrationModel;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that games running side by side in one JVM do not see each
+ * other's changes.
+ * Every session gets its own game, model and listener thread, with boards
+ * of different sizes, and all listeners are released at once. Each model
+ * must only ever notify with itself, see exactly the events of its own
+ * game, and end on the same board as a model that played that game
+ * alone on this thread.
+ *
+ * Usage: java check.SessionIsolationCheck [sessions]
+ * (with the source folder on the class path, for the card images)
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class SessionIsolationCheck {
+
+    /** default number of sessions run together */
+    private static final int DEFAULT_SESSIONS = 200;
+    /** board dimensions, taken in turn by the sessions */
+    private static final int[] DIMS = {4, 6, 8};
+
+
+    /**
+     * One game session and what its model saw.
+     *
+     */
+    private static class Session {
+
+        /** messages of the game */
+        private final String trace;
+        /** the session's model */
+        private final ConcentrationModel model;
+        /** typed events of the model */
+        private final GameTrace.EventLog events;
+        /** updates from another model seen by the action observer */
+        private final AtomicInteger foreignUpdates = new AtomicInteger();
+        /** the listener thread */
+        private final Thread thread;
+
+
+        /**
+         * Constructor
+         *
+         * @param id                session number
+         * @param boardDimension    board dimension
+         * @param seed              seed of the game
+         * @param start             released once every session is ready
+         */
+        private Session(int id, int boardDimension, long seed,
+                        CountDownLatch start) {
+            trace = GameTrace.play(boardDimension, seed);
+            model = GameTrace.newModel(boardDimension);
+            events = new GameTrace.EventLog(model);
+            model.addObserver((subject, row, col, action) -> {
+                if (subject != model) {
+                    foreignUpdates.incrementAndGet();
+                }
+            });
+            Listener listener = new Listener(new MessageDecoder(
+                    new ByteArrayInputStream(trace.getBytes(
+                            StandardCharsets.US_ASCII))), model);
+            thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                listener.run();
+            }, "session-" + id);
+            thread.start();
+        }
+    }
+
+
+    /**
+     * Runs the check.
+     *
+     * @param args    optional number of sessions
+     * @throws InterruptedException if interrupted while waiting
+     *
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_SESSIONS;
+//        keep the report readable, every message received is logged.
+        Log.setLevel(Log.Level.ERROR);
+        Random random = new Random(605);
+        CountDownLatch start = new CountDownLatch(1);
+        Session[] sessions = new Session[count];
+        for (int id = 0; id < count; id++) {
+            sessions[id] = new Session(id, DIMS[id % DIMS.length],
+                    random.nextLong(), start);
+        }
+        start.countDown();
+        int foreign = 0;
+        int mixed = 0;
+        int wrongBoards = 0;
+        int unfinished = 0;
+        for (Session session : sessions) {
+            session.thread.join(30_000);
+            if (session.thread.isAlive()) {
+                unfinished++;
+                continue;
+            }
+            foreign += session.events.getForeign()
+                    + session.foreignUpdates.get();
+            ConcentrationModel reference =
+                    GameTrace.newModel(session.model.getDIM());
+            GameTrace.EventLog expected = new GameTrace.EventLog(reference);
+            GameTrace.apply(session.trace, reference);
+            if (!session.events.getEvents().equals(expected.getEvents())) {
+                mixed++;
+            }
+            if (!sameBoard(session.model.getBoard(), reference.getBoard())) {
+                wrongBoards++;
+            }
+        }
+        Checks.check(unfinished == 0,
+                (count - unfinished) + " of " + count + " sessions finished");
+        Checks.check(foreign == 0,
+                foreign + " notifications came from another session's model");
+        Checks.check(mixed == 0,
+                mixed + " sessions saw events other than their own game's");
+        Checks.check(wrongBoards == 0,
+                wrongBoards + " sessions ended on a different board than "
+                        + "the game played alone");
+        Checks.exit();
+    }
+
+
+    /**
+     * Compares two boards cell by cell.
+     *
+     * @param board        a board
+     * @param reference    the board it should equal
+     * @return true if the same
+     *
+     */
+    private static boolean sameBoard(BoardState board, BoardState reference) {
+        if (board.getDIM() != reference.getDIM()
+                || board.getNumMoves() != reference.getNumMoves()
+                || board.getMatches() != reference.getMatches()
+                || board.getGameOver() != reference.getGameOver()) {
+            return false;
+        }
+        for (int row = 0; row < board.getDIM(); row++) {
+            for (int col = 0; col < board.getDIM(); col++) {
+                if (board.getCard(row, col) != reference.getCard(row, col)
+                        || board.isFaceUp(row, col)
+                            != reference.isFaceUp(row, col)
+                        || board.isMatched(row, col)
+                            != reference.isMatched(row, col)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+Homework 11 : Concentration GUI
+File Name : SyncHandshakeCheck.java
+ */
+package check;
+
+import controller.ConcentrationController;
+import logging.Log;
+import model.ConcentrationModel;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import static common.ConcentrationProtocol.BOARD_DIM_MSG;
+import static sync.SyncProtocol.SNAPSHOT;
+
+/**
+ * Checks that a corrupt SNAPSHOT during connect is reported as a failed
+ * connection and does not leave the socket open.
+ * A one shot server sends the board dimension, waits for SYNC and answers
+ * with a broken snapshot. The controller must throw an IOException, as
+ * for any other bad handshake, and the server must then read the end of
+ * the stream.
+ *
+ * Usage: java check.SyncHandshakeCheck
+ * (with the source folder on the class path, for the card images)
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class SyncHandshakeCheck {
+
+    /** board dimension sent by the server */
+    private static final int DIM = 4;
+    /** longest wait for the client to close, in milliseconds */
+    private static final int CLOSE_TIMEOUT_MILLIS = 5000;
+
+
+    /**
+     * Runs the checks.
+     *
+     * @param args    unused
+     * @throws Exception if the loopback server fails
+     *
+     */
+    public static void main(String[] args) throws Exception {
+        Log.setLevel(Log.Level.OFF);
+        checkSnapshot("not Base64", SNAPSHOT + " g1 0 *not-base64*");
+        checkSnapshot("truncated board", SNAPSHOT + " g1 0 AAAA");
+        checkSnapshot("bad sequence number", SNAPSHOT + " g1 x AAAA");
+        Checks.exit();
+    }
+
+
+    /**
+     * Connects with syncing on to a server that answers SYNC with the
+     * given line.
+     *
+     * @param what        what is wrong with the line, for the report
+     * @param snapshot    the answer to SYNC
+     * @throws Exception if the loopback server fails
+     *
+     */
+    private static void checkSnapshot(String what, String snapshot)
+            throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1,
+                InetAddress.getLoopbackAddress())) {
+            AtomicReference<String> serverSaw = new AtomicReference<>();
+            Thread serverThread = new Thread(() ->
+                    serverSaw.set(answer(server, snapshot)), "server");
+            serverThread.start();
+            ConcentrationController controller = new ConcentrationController(
+                    server.getInetAddress().getHostAddress(),
+                    server.getLocalPort(), new ConcentrationModel());
+            controller.setSync(true);
+            String failure = null;
+            try {
+                controller.begin();
+            } catch (IOException e) {
+                failure = e.getMessage();
+            } catch (RuntimeException e) {
+                failure = "escaped: " + e;
+            }
+            serverThread.join(CLOSE_TIMEOUT_MILLIS * 2L);
+            Checks.check(failure != null && !failure.startsWith("escaped"),
+                    what + ": connect throws IOException (" + failure + ")");
+            Checks.check("closed".equals(serverSaw.get()),
+                    what + ": client socket is closed (" + serverSaw.get()
+                            + ")");
+        }
+    }
+
+
+    /**
+     * The server side: sends the board dimension, answers SYNC and waits
+     * for the client to close.
+     *
+     * @param server      the server socket
+     * @param snapshot    the answer to SYNC
+     * @return "closed" if the client closed the connection, else what
+     *         went wrong
+     *
+     */
+    private static String answer(ServerSocket server, String snapshot) {
+        try (Socket peer = server.accept()) {
+            peer.setSoTimeout(CLOSE_TIMEOUT_MILLIS);
+            OutputStream out = peer.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    peer.getInputStream(), StandardCharsets.US_ASCII));
+            out.write((String.format(BOARD_DIM_MSG, DIM) + "\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String request = in.readLine();
+            out.write((snapshot + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+//            anything but the end of the stream means the socket was left
+//            open.
+            String more = in.readLine();
+            return more == null ? "closed"
+                    : "read " + more + " after " + request;
+        } catch (IOException e) {
+            return e.toString();
+        }
+    }
+}
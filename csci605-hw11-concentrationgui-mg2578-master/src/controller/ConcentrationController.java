@@ -5,10 +5,24 @@ File Name : ConcentrationController.java
 package controller;
 
 import common.ConcentrationException;
+import logging.Log;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import model.BoardState;
 import model.ConcentrationModel;
+import recording.SessionRecorder;
+import sync.SnapshotCodec;
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import static common.ConcentrationProtocol.*;
+import static sync.SyncProtocol.SYNC;
+import static sync.SyncProtocol.SYNC_MSG;
 
 /**
  * The controller is set up to respond to input from the user (and the network in this case).
@@ -27,6 +41,62 @@ public class ConcentrationController {
     private final String hostName;
     /** the port number */
     private final int portNumber;
+    /** the model updated by this connection */
+    private final ConcentrationModel model;
+    /** buffered stream to the server, replaced on reconnect */
+    private OutputStream out;
+    /** guards the stream, which changes on reconnect */
+    private final Object writeLock = new Object();
+    /** true while connected to the server */
+    private volatile boolean connected;
+    /** true once closed, the connection is not restored after that */
+    private volatile boolean closed;
+    /** loss to reconnect times */
+    private final Histogram reconnectTime =
+            MetricsRegistry.get().histogram(MetricsRegistry.RECONNECT);
+    /** SYNC sent to snapshot applied times */
+    private final Histogram catchUpTime =
+            MetricsRegistry.get().histogram(MetricsRegistry.CATCH_UP);
+    /** true to ask the server for snapshots and numbered changes */
+    private volatile boolean sync;
+    /** id of the game to resume on reconnect, null if none */
+    private String gameId;
+    /** overflow policy of the queue to the model, null for no queue */
+    private volatile InboundQueue.Policy inboundPolicy;
+    /** makes the thread the listener runs on */
+    private volatile ThreadFactory listenerThreads =
+            runnable -> new Thread(runnable, "controller-listener");
+    /** encoded REVEAL message of each card, as row * dimension + col */
+    private byte[][] revealMessages;
+    /** true if sends made in quick succession share one flush */
+    private volatile boolean pipelined;
+    /** true while a flush is scheduled and has not run yet */
+    private boolean flushPending;
+    /** time of the oldest send waiting for a pipelined flush */
+    private long oldestUnflushed;
+    /** times REVEALs until their CARD arrives */
+    private RevealTimer revealTimer;
+    /** records the messages of this connection, null if not recording */
+    private SessionRecorder recorder;
+    /** click to REVEAL written times */
+    private final Histogram clickToSend =
+            MetricsRegistry.get().histogram(MetricsRegistry.CLICK_TO_SEND);
+    /** line terminator appended to every message */
+    private static final byte[] LINE_END =
+            System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    /** longest wait for the server to accept a connection */
+    private static final int CONNECT_TIMEOUT_MILLIS = 3000;
+    /** wait after the first failed reconnect */
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    /** longest wait between reconnect attempts */
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+    /** runs the flushes of pipelined sends for all connections */
+    private static final ExecutorService FLUSHER =
+            Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "controller-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
 
 
     /**
@@ -34,48 +104,221 @@ public class ConcentrationController {
      *
      * @param hostName      the hostname
      * @param portNumber    the port number
+     * @param model         the model updated by this connection
      *
      */
-    public ConcentrationController(String hostName, int portNumber) {
+    public ConcentrationController(String hostName, int portNumber,
+                                   ConcentrationModel model) {
         this.hostName = hostName;
         this.portNumber = portNumber;
+        this.model = model;
     }
 
 
     /**
      * Creates a socket connection
      * Starts the listener thread.
+     * If the connection is lost later, it is reconnected in the
+     * background.
      *
      * @throws IOException to handle any IOExceptions
      *
      */
     public void begin() throws IOException{
-//        creates socket connection
-            kkSocket = new Socket(hostName, portNumber);
-//            to read data from stream
-            BufferedReader in = new BufferedReader(
-                    new InputStreamReader(kkSocket.getInputStream()));
+        connect();
+    }
 
-            String fromServer;
-            fromServer = in.readLine();
+
+    /**
+     * Connects to the server, reads the board dimension, creates the
+     * board, or catches up on it when syncing, and starts the listener
+     * thread.
+     *
+     * @throws IOException if the server cannot be reached or sends no
+     *                     board
+     *
+     */
+    private void connect() throws IOException {
+//        creates socket connection
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(hostName, portNumber),
+                    CONNECT_TIMEOUT_MILLIS);
+//            notices a peer that vanished without closing.
+            socket.setKeepAlive(true);
+//            to decode data from stream
+            MessageDecoder decoder = new MessageDecoder(socket.getInputStream());
+            decoder.setRecorder(recorder);
 //            process board dimension data received from server.
-            if(fromServer.startsWith(BOARD_DIM)){
-                System.out.println("From server: " +fromServer);
-                System.out.println();
-                String[] messageArray = fromServer.split(" ");
-
-                this.boardDimension = Integer.parseInt(messageArray[1]);
-//                the model
-                ConcentrationModel board = new ConcentrationModel(boardDimension);
-//                load images
-                board.loadImagesInGrid(boardDimension);
+            boolean received = decoder.next(new MessageHandler() {
+                @Override
+                public void boardDimension(int dimension) {
+                    boardDimension = dimension;
+                }
+            });
+            if (!received || boardDimension <= 0) {
+                throw new IOException("no board dimension from server");
+            }
+            Log.info("From server: " + decoder.currentLine());
+            Log.info("");
+            synchronized (writeLock) {
+                kkSocket = socket;
+//                to write to stream, kept for the whole connection.
+                out = new BufferedOutputStream(socket.getOutputStream());
+                flushPending = false;
+                encodeRevealMessages();
+                revealTimer = new RevealTimer(boardDimension);
+            }
+//            load images
+            model.loadImagesInGrid(boardDimension);
+            if (sync) {
+                syncBoard(decoder);
+            }
+            else {
 //                create initial board.
-                board.createBoard(boardDimension);
-//                create listener thread.
-//                start listener.
-                Listener listener = new Listener(in, boardDimension);
-                listener.start();
+                model.createBoard(boardDimension);
+            }
+            connected = true;
+//            create listener thread.
+//            start listener.
+            InboundQueue.Policy policy = inboundPolicy;
+            Listener listener = new Listener(decoder, model, revealTimer,
+                    this::connectionLost, policy == null ? null
+                    : new InboundQueue(policy, InboundQueue.DEFAULT_CAPACITY));
+            listenerThreads.newThread(listener).start();
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Asks the server for a snapshot of the board, of the game played
+     * before if this is a reconnect, and shows it.
+     * Falls back to a new empty board if the server answers with an error,
+     * as servers without the extension do.
+     *
+     * @param decoder    decodes messages read from the server
+     * @throws IOException if the connection drops or the snapshot is bad,
+     *                     so connect() closes the socket either way
+     *
+     */
+    private void syncBoard(MessageDecoder decoder) throws IOException {
+        String request = gameId == null ? SYNC
+                : String.format(SYNC_MSG, gameId);
+        byte[] message = (request + System.lineSeparator())
+                .getBytes(StandardCharsets.US_ASCII);
+        long sentAt = System.nanoTime();
+        if (recorder != null) {
+            recorder.record(SessionRecorder.OUTBOUND, message, 0,
+                    message.length - LINE_END.length);
+        }
+        synchronized (writeLock) {
+            out.write(message);
+            out.flush();
+        }
+        Log.info("To server: " + request);
+        String[] newGameId = new String[1];
+        long[] sequence = new long[1];
+        byte[][] state = new byte[1][];
+        boolean received;
+        try {
+            received = decoder.next(new MessageHandler() {
+                @Override
+                public void snapshot(String id, long last, byte[] board) {
+                    newGameId[0] = id;
+                    sequence[0] = last;
+                    state[0] = board;
+                }
+            });
+        } catch (IllegalArgumentException e) {
+//            not Base64, or a number that does not parse.
+            throw new IOException("bad snapshot: " + e.getMessage(), e);
+        }
+        if (!received) {
+            throw new IOException("no answer to " + SYNC);
+        }
+        if (state[0] == null) {
+//            the server does not know the extension, play without it.
+            Log.info("From server: " + decoder.currentLine());
+            model.createBoard(boardDimension);
+            return;
+        }
+        BoardState board;
+        try {
+            board = SnapshotCodec.decode(state[0]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("bad snapshot: " + e.getMessage(), e);
+        }
+        if (board.getDIM() != boardDimension) {
+            throw new IOException("snapshot of a " + board.getDIM() + " x "
+                    + board.getDIM() + " board");
+        }
+        boolean resumed = newGameId[0].equals(gameId);
+        gameId = newGameId[0];
+        model.restore(board, sequence[0]);
+        long took = System.nanoTime() - sentAt;
+        catchUpTime.record(took);
+        Log.info((resumed ? "Resumed game " : "Started game ") + gameId
+                + " at change " + sequence[0] + " in " + took / 1000 + " us");
+    }
+
+
+    /**
+     * Called by the listener when the connection drops before the game
+     * is over. Tells the model and starts reconnecting.
+     *
+     */
+    private void connectionLost() {
+        if (closed) {
+            return;
+        }
+        connected = false;
+        model.setConnected(false);
+        Thread reconnector = new Thread(this::reconnect,
+                "controller-reconnect");
+        reconnector.setDaemon(true);
+        reconnector.start();
+    }
+
+
+    /**
+     * Tries to connect again until it succeeds or the controller is
+     * closed, waiting twice as long after each failure up to a limit.
+     * When syncing, the server resumes the game and sends its board as it
+     * is now; otherwise it starts a new game and the board is created
+     * again from scratch.
+     *
+     */
+    private void reconnect() {
+        long lostAt = System.nanoTime();
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        int attempts = 0;
+        while (!closed) {
+            attempts++;
+            try {
+                connect();
+                long took = System.nanoTime() - lostAt;
+                reconnectTime.record(took);
+                Log.info("Reconnected after " + attempts + " attempts in "
+                        + took / 1_000_000 + " ms");
+                model.setConnected(true);
+                return;
+            } catch (IOException | RuntimeException e) {
+//                keep trying whatever went wrong with this attempt.
+                Log.info("Reconnect attempt " + attempts + " failed: " + e);
             }
+            try {
+//                jitter keeps clients that lost one server from retrying
+//                in step.
+                Thread.sleep(backoff + ThreadLocalRandom.current()
+                        .nextLong(backoff / 2 + 1));
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
     }
 
 
@@ -90,26 +333,204 @@ public class ConcentrationController {
      */
     public void sendToServer(int row, int col) throws IOException,
             ConcentrationException {
-//        to write to stream
-        PrintWriter out = new PrintWriter(kkSocket.getOutputStream(), true);
+        long clickedAt = System.nanoTime();
 //        for invalid input on Plain-text game version.
         try {
-            if(row >= boardDimension || col >= boardDimension){
+            if (!connected) {
+//                the board is sent again on reconnect, drop the move.
+                Log.info("Not connected, move dropped");
+                return;
+            }
+            if(row < 0 || col < 0 || row >= boardDimension
+                    || col >= boardDimension){
                 throw new ConcentrationException("out of bounds.");
             }
 //            send message to server.
             else {
-                String sendToServer = messageToServer(row, col);
-                System.out.println("To server: " + sendToServer);
-                out.println(sendToServer);
+                byte[] sendToServer = revealMessage(row, col);
+                if (Log.isEnabled(Log.Level.INFO)) {
+                    Log.info("To server: " + new String(sendToServer, 0,
+                            sendToServer.length - LINE_END.length,
+                            StandardCharsets.US_ASCII));
+                }
+                if (recorder != null) {
+                    recorder.record(SessionRecorder.OUTBOUND, sendToServer, 0,
+                            sendToServer.length - LINE_END.length);
+                }
+//                mark first, the CARD may arrive before write returns.
+                revealTimer.sent(row, col, System.nanoTime());
+                write(sendToServer, clickedAt);
             }
         }
         catch (ConcentrationException e){
-            System.err.println(e.getMessage());
+            Log.error(e.getMessage());
+        }
+    }
+
+
+    /**
+     * Sets whether sends share flushes.
+     * When pipelined, a send only buffers its message and schedules a
+     * flush, so clicks made before that flush runs go out in one write.
+     * Otherwise every send is flushed at once.
+     *
+     * @param pipelined    true to coalesce flushes
+     *
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+
+    /**
+     * Sets whether to ask the server for a snapshot after the board
+     * dimension. The server then numbers every change and keeps the game,
+     * so a reconnect resumes it instead of starting over.
+     * Only for servers that answer SYNC, with a snapshot or an error.
+     * Must be called before begin().
+     *
+     * @param sync    true to sync
+     *
+     */
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+
+    /**
+     * Sets whether server messages go through a bounded queue to a
+     * thread of their own that updates the model, and what happens when
+     * that queue is full. Without a queue the listener thread updates the
+     * model itself. Takes effect on the next connect.
+     *
+     * @param policy    overflow policy, null for no queue
+     *
+     */
+    public void setInboundPolicy(InboundQueue.Policy policy) {
+        this.inboundPolicy = policy;
+    }
+
+
+    /**
+     * Sets how the thread reading from the server is made, such as a
+     * virtual thread factory for many headless clients. By default each
+     * connection gets a platform thread. Takes effect on the next
+     * connect.
+     *
+     * @param listenerThreads    makes the listener thread
+     *
+     */
+    public void setListenerThreads(ThreadFactory listenerThreads) {
+        this.listenerThreads = listenerThreads;
+    }
+
+
+    /**
+     * Records every message sent and received on this connection.
+     * Must be called before begin() to include the board dimension.
+     *
+     * @param recorder    the recorder, null to stop recording
+     *
+     */
+    public void setRecorder(SessionRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+
+    /**
+     * Writes a message, flushing it now or scheduling a shared flush.
+     *
+     * @param message      the encoded message
+     * @param clickedAt    time of the click, from System.nanoTime()
+     * @throws IOException to handle any IOExceptions
+     *
+     */
+    private void write(byte[] message, long clickedAt) throws IOException {
+        synchronized (writeLock) {
+            out.write(message);
+            if (!pipelined) {
+                out.flush();
+                clickToSend.record(System.nanoTime() - clickedAt);
+                return;
+            }
+            if (flushPending) {
+                return;
+            }
+            flushPending = true;
+            oldestUnflushed = clickedAt;
+        }
+        FLUSHER.execute(this::flush);
+    }
+
+
+    /**
+     * Flushes everything written since the last flush.
+     * Records the wait of the oldest click in the batch.
+     *
+     */
+    private void flush() {
+        synchronized (writeLock) {
+            flushPending = false;
+            try {
+                out.flush();
+                clickToSend.record(System.nanoTime() - oldestUnflushed);
+            } catch (IOException e) {
+                Log.error(e.getMessage());
+            }
+        }
+    }
+
+
+    /**
+     * Closes the connection to the server.
+     *
+     * @throws IOException to handle any IOExceptions
+     *
+     */
+    public void close() throws IOException {
+        closed = true;
+        Socket socket;
+        synchronized (writeLock) {
+            socket = kkSocket;
+        }
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+
+    /**
+     * Formats and encodes the REVEAL message of every card once, so
+     * sending a move needs no formatting.
+     *
+     */
+    private void encodeRevealMessages() {
+        revealMessages = new byte[boardDimension * boardDimension][];
+        for (int row = 0; row < boardDimension; row++) {
+            for (int col = 0; col < boardDimension; col++) {
+                revealMessages[row * boardDimension + col] =
+                        (messageToServer(row, col) + System.lineSeparator())
+                                .getBytes(StandardCharsets.US_ASCII);
+            }
         }
     }
 
 
+    /**
+     * Gets the encoded message to be sent to server for a card.
+     * The card must be on the board, else another card's message may be
+     * returned.
+     *
+     * @param row       the row
+     * @param col       the column
+     * @return bytes to be sent to server, including the line terminator.
+     *
+     */
+    private byte[] revealMessage(int row, int col){
+        return revealMessages[row * boardDimension + col];
+    }
+
+
     /**
      * Format string to be sent to server.
      *
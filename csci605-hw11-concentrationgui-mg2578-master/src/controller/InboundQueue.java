@@ -0,0 +1,440 @@
+/*
+Homework 11 : Concentration GUI
+File Name : InboundQueue.java
+ */
+package controller;
+
+import logging.Log;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import model.BoardEvent;
+import model.BoardState;
+import model.ConcentrationModel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded queue of board changes between the thread reading the socket
+ * and the model.
+ * The listener thread decodes messages, works out the board after each
+ * one and puts the change here; a model thread takes them off and
+ * applies them to the model, which tells the view. A slow view then only
+ * slows the model thread, and the queue keeps what is waiting for it to a
+ * fixed number of changes.
+ * One thread puts and one thread takes, so the ring needs no locks: each
+ * side writes only its own index and reads the other's. When the ring is
+ * full the policy decides what the listener thread does.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class InboundQueue {
+
+    /**
+     * What to do with a change when the ring is full.
+     *
+     */
+    public enum Policy {
+        /** wait for room, so the server is held back through TCP */
+        BLOCK,
+        /** fold changes into one update of the latest board, redrawing
+         *  only the cards that changed */
+        COALESCE,
+        /** drop changes and restore the latest board in one go */
+        DROP_TO_SNAPSHOT
+    }
+
+    /** default number of changes held, a power of two */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** longest single park while waiting, in nanoseconds */
+    private static final long PARK_NANOS = 1_000_000;
+
+    /** what to do when the ring is full */
+    private final Policy policy;
+    /** maps a sequence number to its slot */
+    private final int mask;
+    /** what changed, CREATE for a whole new board */
+    private final BoardEvent[] events;
+    /** card changed, as row * dimension + col */
+    private final int[] cells;
+    /** board after the change */
+    private final BoardState[] states;
+    /** server sequence number of the change, 0 if none */
+    private final long[] sequences;
+    /** time the listener received the change */
+    private final long[] receivedAts;
+    /** sequence number of the next change to put, written by the
+     *  listener thread only */
+    private volatile long tail;
+    /** sequence number of the next change to take, written by the model
+     *  thread only */
+    private volatile long head;
+    /** head as last read by the listener thread, saves volatile reads */
+    private long cachedHead;
+    /** changes that did not fit, waiting for the model thread */
+    private final AtomicReference<Overflow> overflow =
+            new AtomicReference<>();
+    /** true while the listener thread folds changes into the overflow */
+    private boolean overflowing;
+    /** cards changed since the overflow began, one bit per cell */
+    private long[] dirtyCells = new long[0];
+    /** true if the overflow has to restore the whole board */
+    private boolean restoreNeeded;
+    /** time the listener received the oldest change in the overflow */
+    private long overflowReceivedAt;
+    /** true once no more changes will be put */
+    private volatile boolean finished;
+    /** the model thread, parked while the ring is empty */
+    private Thread consumer;
+    /** true while the model thread is parked */
+    private volatile boolean consumerWaiting;
+    /** the listener thread, set while it waits for room */
+    private volatile Thread waitingProducer;
+
+    /** time the listener thread waited for room, per wait */
+    private final Histogram stallTime =
+            MetricsRegistry.get().histogram(MetricsRegistry.INBOUND_STALL);
+    /** number of times the ring was full and changes were folded */
+    private final AtomicLong overflows =
+            MetricsRegistry.get().counter(MetricsRegistry.INBOUND_OVERFLOWS);
+
+
+    /**
+     * Changes folded together while the ring was full.
+     *
+     */
+    private static final class Overflow {
+
+        /** the latest board */
+        private final BoardState state;
+        /** server sequence number of the latest change */
+        private final long sequence;
+        /** cards to redraw, null to restore the whole board */
+        private final long[] dirtyCells;
+        /** time the listener received the oldest change folded */
+        private final long receivedAt;
+
+
+        /**
+         * Constructor
+         *
+         * @param state         the latest board
+         * @param sequence      server sequence number of the latest change
+         * @param dirtyCells    cards to redraw, null to restore the board
+         * @param receivedAt    time the oldest change folded was received
+         */
+        private Overflow(BoardState state, long sequence, long[] dirtyCells,
+                         long receivedAt) {
+            this.state = state;
+            this.sequence = sequence;
+            this.dirtyCells = dirtyCells;
+            this.receivedAt = receivedAt;
+        }
+    }
+
+
+    /**
+     * Constructor.
+     * Registers the depth of the queue as a gauge.
+     *
+     * @param policy      what to do when the ring is full
+     * @param capacity    number of changes held, a power of two
+     */
+    public InboundQueue(Policy policy, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of "
+                    + "two: " + capacity);
+        }
+        this.policy = policy;
+        this.mask = capacity - 1;
+        events = new BoardEvent[capacity];
+        cells = new int[capacity];
+        states = new BoardState[capacity];
+        sequences = new long[capacity];
+        receivedAts = new long[capacity];
+        MetricsRegistry.get().gauge(MetricsRegistry.INBOUND_DEPTH,
+                this::depth);
+    }
+
+
+    /**
+     * Get number of changes waiting in the ring.
+     *
+     * @return queue depth
+     */
+    public long depth() {
+        return tail - head;
+    }
+
+
+    /**
+     * Starts the thread applying the changes to the model.
+     *
+     * @param model    the model
+     *
+     */
+    void start(ConcentrationModel model) {
+        consumer = new Thread(() -> applyChanges(model), "model-applier");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+
+    /**
+     * Queues a change. Called by the listener thread only.
+     *
+     * @param event         what changed, CREATE for a whole new board
+     * @param cell          card changed, as row * dimension + col
+     * @param state         board after the change
+     * @param sequence      server sequence number of the change, 0 if none
+     * @param receivedAt    System.nanoTime() when the listener received
+     *                      the message, kept so render latency counts the
+     *                      time spent queued
+     *
+     */
+    void put(BoardEvent event, int cell, BoardState state, long sequence,
+             long receivedAt) {
+        if (overflowing && overflow.get() == null) {
+//            the model thread took the overflow, start over with the ring.
+            overflowing = false;
+            restoreNeeded = false;
+            Arrays.fill(dirtyCells, 0);
+        }
+        if (!overflowing) {
+            if (tail - cachedHead > mask) {
+                cachedHead = head;
+            }
+            if (tail - cachedHead <= mask) {
+                publish(event, cell, state, sequence, receivedAt);
+                return;
+            }
+            if (policy == Policy.BLOCK) {
+                awaitRoom();
+                publish(event, cell, state, sequence, receivedAt);
+                return;
+            }
+            overflowing = true;
+            overflowReceivedAt = receivedAt;
+            overflows.incrementAndGet();
+        }
+        fold(event, cell, state, sequence);
+    }
+
+
+    /**
+     * Tells the model thread that no more changes will be put, and waits
+     * until it has applied everything queued.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     *
+     */
+    void finish() throws InterruptedException {
+        finished = true;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+            consumer.join();
+        }
+    }
+
+
+    /**
+     * Writes a change into the next slot and wakes the model thread.
+     *
+     * @param event         what changed
+     * @param cell          card changed
+     * @param state         board after the change
+     * @param sequence      server sequence number of the change
+     * @param receivedAt    time the listener received the change
+     *
+     */
+    private void publish(BoardEvent event, int cell, BoardState state,
+                         long sequence, long receivedAt) {
+        int slot = (int) tail & mask;
+        events[slot] = event;
+        cells[slot] = cell;
+        states[slot] = state;
+        sequences[slot] = sequence;
+        receivedAts[slot] = receivedAt;
+//        the volatile write makes the slot visible to the model thread.
+        tail = tail + 1;
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+
+    /**
+     * Parks the listener thread until the model thread frees a slot.
+     *
+     */
+    private void awaitRoom() {
+        long stalledAt = System.nanoTime();
+        waitingProducer = Thread.currentThread();
+        while ((cachedHead = head) + mask < tail) {
+            if (consumerWaiting) {
+                LockSupport.unpark(consumer);
+            }
+            LockSupport.parkNanos(this, PARK_NANOS);
+        }
+        waitingProducer = null;
+        stallTime.record(System.nanoTime() - stalledAt);
+    }
+
+
+    /**
+     * Folds a change that did not fit into the overflow handed to the
+     * model thread.
+     *
+     * @param event       what changed
+     * @param cell        card changed
+     * @param state       board after the change
+     * @param sequence    server sequence number of the change
+     *
+     */
+    private void fold(BoardEvent event, int cell, BoardState state,
+                      long sequence) {
+        long[] dirty = null;
+        if (event == BoardEvent.CREATE) {
+            restoreNeeded = true;
+        }
+        if (policy == Policy.COALESCE && !restoreNeeded) {
+            int words = (state.getDIM() * state.getDIM() + 63) >>> 6;
+            if (dirtyCells.length != words) {
+                dirtyCells = new long[words];
+            }
+            if (event != BoardEvent.GAME_OVER) {
+                dirtyCells[cell >>> 6] |= 1L << cell;
+            }
+            dirty = dirtyCells.clone();
+        }
+        overflow.set(new Overflow(state, sequence, dirty,
+                overflowReceivedAt));
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+
+    /**
+     * The model thread: applies queued changes in order, parking while
+     * there are none, until finish() is called and everything is applied.
+     *
+     * @param model    the model
+     *
+     */
+    private void applyChanges(ConcentrationModel model) {
+        while (true) {
+            if (overflow.get() != null) {
+//                the ring does not grow while an overflow waits, and
+//                everything in it is older than the overflow.
+                while (head < tail) {
+                    applyNext(model);
+                }
+                apply(model, overflow.getAndSet(null));
+                continue;
+            }
+            if (head < tail) {
+                applyNext(model);
+                continue;
+            }
+            if (finished) {
+                if (head == tail && overflow.get() == null) {
+                    return;
+                }
+                continue;
+            }
+            consumerWaiting = true;
+            if (head == tail && overflow.get() == null && !finished) {
+                LockSupport.park(this);
+            }
+            consumerWaiting = false;
+        }
+    }
+
+
+    /**
+     * Applies the oldest change in the ring and frees its slot.
+     *
+     * @param model    the model
+     *
+     */
+    private void applyNext(ConcentrationModel model) {
+        long next = head;
+        apply(model, (int) next & mask);
+        head = next + 1;
+        Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+
+    /**
+     * Applies one queued change and drops the references held by its slot.
+     *
+     * @param model    the model
+     * @param slot     the slot
+     *
+     */
+    private void apply(ConcentrationModel model, int slot) {
+        BoardState state = states[slot];
+        states[slot] = null;
+        model.setReceivedAt(receivedAts[slot]);
+        try {
+            if (events[slot] == BoardEvent.CREATE) {
+                model.restore(state, sequences[slot]);
+                return;
+            }
+            if (sequences[slot] > 0) {
+                model.acceptChange(sequences[slot]);
+            }
+            model.applyChange(state, events[slot], cells[slot]);
+        } catch (RuntimeException e) {
+            Log.error("could not apply change: " + e);
+        } finally {
+            model.setReceivedAt(0);
+        }
+    }
+
+
+    /**
+     * Applies folded changes, either card by card or as a whole new board.
+     *
+     * @param model     the model
+     * @param folded    the folded changes
+     *
+     */
+    private void apply(ConcentrationModel model, Overflow folded) {
+        BoardState state = folded.state;
+        model.setReceivedAt(folded.receivedAt);
+        try {
+            if (folded.dirtyCells == null) {
+                model.restore(state, folded.sequence);
+                return;
+            }
+            if (folded.sequence > 0) {
+                model.acceptChange(folded.sequence);
+            }
+            boolean wasOver = model.getGameOver();
+            int boardDimension = state.getDIM();
+            for (int cell = 0; cell < boardDimension * boardDimension;
+                 cell++) {
+                if ((folded.dirtyCells[cell >>> 6] & (1L << cell)) != 0) {
+                    model.applyChange(state, state.isMatched(
+                            cell / boardDimension, cell % boardDimension)
+                            ? BoardEvent.MATCHED : BoardEvent.NOT_MATCHED,
+                            cell);
+                }
+            }
+            if (state.getGameOver() && !wasOver) {
+                model.applyChange(state, BoardEvent.GAME_OVER, 0);
+            }
+        } catch (RuntimeException e) {
+            Log.error("could not apply change: " + e);
+        } finally {
+            model.setReceivedAt(0);
+        }
+    }
+}
@@ -4,104 +4,358 @@ File Name : Listener.java
  */
 package controller;
 
+import logging.Log;
+import metrics.MetricsRegistry;
+import model.BoardEvent;
+import model.BoardState;
 import model.ConcentrationModel;
-import java.io.BufferedReader;
+import sync.SnapshotCodec;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import static common.ConcentrationProtocol.*;
+import java.util.concurrent.atomic.AtomicLong;
 import static common.ConcentrationProtocol.GAME_OVER;
 
 
 /**
- * A Thread that listens to the server.
+ * Listens to the server.
+ * Runs on whatever thread its owner starts it on, a platform thread or a
+ * virtual one, so thousands of connections need not cost a platform
+ * thread each. Changes are applied to the model on this thread, or handed to an
+ * InboundQueue whose own thread applies them, so a slow view never holds
+ * up reading the socket.
  *
  * @author Meenu Gigi, mg2578@rit.edu
  * @author Vedika Vishwanath Painjane, vp2312@rit.edu
  */
-public class Listener extends Thread{
+public class Listener implements Runnable {
 
-    /** the bufferedReader to read data */
-    private final BufferedReader in;
-    /** board dimension */
-    private final int boardDimension;
+    /** decodes messages read from the server */
+    private final MessageDecoder decoder;
+    /** the model */
+    private final ConcentrationModel board;
+    /** times REVEALs until their CARD arrives, null if not timed */
+    private final RevealTimer revealTimer;
+    /** called when the connection drops before game over, may be null */
+    private final Runnable connectionLost;
+    /** queues changes for the model thread, null to apply them here */
+    private final InboundQueue queue;
+    /** number of messages received */
+    private final AtomicLong messages =
+            MetricsRegistry.get().counter(MetricsRegistry.MESSAGES);
 
 
     /**
      * Constructor
      *
-     * @param in    to read data
-     * @param boardDimension    board dimension
+     * @param decoder    decodes messages read from the server
+     * @param board      the model
      */
-    public Listener(BufferedReader in, int boardDimension) {
-        this.in = in;
-        this.boardDimension = boardDimension;
+    public Listener(MessageDecoder decoder, ConcentrationModel board) {
+        this(decoder, board, null, null, null);
+    }
+
+
+    /**
+     * Constructor
+     *
+     * @param decoder    decodes messages read from the server
+     * @param board      the model
+     * @param queue      queues changes for the model thread, null to
+     *                   apply them on this thread
+     */
+    public Listener(MessageDecoder decoder, ConcentrationModel board,
+                    InboundQueue queue) {
+        this(decoder, board, null, null, queue);
+    }
+
+
+    /**
+     * Constructor
+     *
+     * @param decoder        decodes messages read from the server
+     * @param board          the model
+     * @param revealTimer    times REVEALs until their CARD arrives
+     */
+    Listener(MessageDecoder decoder, ConcentrationModel board,
+             RevealTimer revealTimer) {
+        this(decoder, board, revealTimer, null);
+    }
+
+
+    /**
+     * Constructor
+     *
+     * @param decoder           decodes messages read from the server
+     * @param board             the model
+     * @param revealTimer       times REVEALs until their CARD arrives
+     * @param connectionLost    called when the connection drops before the
+     *                          game is over
+     */
+    Listener(MessageDecoder decoder, ConcentrationModel board,
+             RevealTimer revealTimer, Runnable connectionLost) {
+        this(decoder, board, revealTimer, connectionLost, null);
+    }
 
+
+    /**
+     * Constructor
+     *
+     * @param decoder           decodes messages read from the server
+     * @param board             the model
+     * @param revealTimer       times REVEALs until their CARD arrives
+     * @param connectionLost    called when the connection drops before the
+     *                          game is over
+     * @param queue             queues changes for the model thread, null
+     *                          to apply them on this thread
+     */
+    Listener(MessageDecoder decoder, ConcentrationModel board,
+             RevealTimer revealTimer, Runnable connectionLost,
+             InboundQueue queue) {
+        this.decoder = decoder;
+        this.board = board;
+        this.revealTimer = revealTimer;
+        this.connectionLost = connectionLost;
+        this.queue = queue;
     }
 
 
     /**
      * The run method.
+     * Blocks on the socket until a message arrives instead of polling,
+     * and passes every message already buffered on to the model before
+     * reading again. A message that cannot be decoded or applied is
+     * logged and skipped. Stops on GAME_OVER, end of stream or a read
+     * error; the last two are reported as a lost connection, once every
+     * queued change has been applied.
      *
      */
+    @Override
     public void run() {
-//        messages received from server.
-        List<String> messagesFromServer;
-//        flag to check if game is over.
-        boolean gameNotOver = true;
-//        to process second card.
-        int flag_for_second_card = 0;
-//        the model.
-        ConcentrationModel board = new ConcentrationModel(boardDimension);
+        ModelUpdater updater;
+        if (queue != null) {
+            updater = new QueuedUpdater();
+            queue.start(board);
+        }
+        else {
+            updater = new ModelUpdater();
+        }
 //          loop until game not over.
-        do {
-            messagesFromServer = new ArrayList<>();
-            while (true) {
+        boolean connected = true;
+        try {
+            while (connected && !updater.gameOver) {
                 try {
-                    if (!in.ready()) break;
-                } catch (IOException e) {
-                    e.printStackTrace();
+                    connected = decoder.next(updater);
+                } catch (RuntimeException e) {
+//                    the bad line is already consumed, keep reading.
+                    Log.error("bad message from server: "
+                            + decoder.currentLine() + ": " + e);
                 }
-                try {
-                    messagesFromServer.add(in.readLine());
-                } catch (IOException e) {
-                    e.printStackTrace();
+                if (connected) {
+                    messages.incrementAndGet();
                 }
             }
-            for (String message : messagesFromServer) {
-//                for card.
-                if (message.startsWith(CARD)) {
-                    System.out.println("from server : " + message);
-                    flag_for_second_card++;
-//                    Creates letter image association and updates view.
-                    board.serverRevealsCardGUI(message);
-                    if (flag_for_second_card >= 2) {
-                        flag_for_second_card = 0;
-                    }
-                }
-//                for match found.
-                else if (message.startsWith(MATCH)) {
-                    System.out.println("from server : " + message);
-//                    display face up value of cards.
-                    board.displayCardOnMatch(message);
-                }
-//                if not a match.
-                else if (message.startsWith(MISMATCH)) {
-                    System.out.println("from server : " + message);
-//                    hide card if not a match.
-                    board.hideCard(message);
-                }
-//                if error occurred.
-                else if (message.startsWith(ERROR)) {
-                    System.err.println(message);
-                }
-//                if game over.
-                else if (message.startsWith(GAME_OVER)) {
-                    board.setGameOver();
-                    System.out.println(GAME_OVER);
-                    gameNotOver = false;
+        } catch (IOException e) {
+            Log.error("connection lost: " + e.getMessage());
+        } finally {
+            close();
+            if (queue != null) {
+                try {
+                    queue.finish();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                 }
             }
-        } while (gameNotOver);
+            if (!updater.gameOver && connectionLost != null) {
+                connectionLost.run();
+            }
+        }
+    }
+
+
+    /**
+     * Closes the connection once the game is over or the connection is
+     * lost.
+     *
+     */
+    private void close() {
+        try {
+            decoder.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Passes decoded server messages on to the model.
+     *
+     */
+    private class ModelUpdater implements MessageHandler {
+
+        /** flag to check if game is over */
+        boolean gameOver = false;
+
+
+        @Override
+        public void card(int row, int col, int cardId) {
+            if (revealTimer != null) {
+                revealTimer.received(row, col);
+            }
+            logReceived();
+//            Creates letter image association and updates view.
+            board.revealCard(row, col, cardId);
+        }
+
+
+        @Override
+        public void match(int card1_row, int card1_col, int card2_row,
+                          int card2_col) {
+            logReceived();
+//            display face up value of cards.
+            board.matchCards(card1_row, card1_col, card2_row, card2_col);
+        }
+
+
+        @Override
+        public void mismatch(int card1_row, int card1_col, int card2_row,
+                             int card2_col) {
+            logReceived();
+//            hide card if not a match.
+            board.hideCards(card1_row, card1_col, card2_row, card2_col);
+        }
+
+
+        @Override
+        public void snapshot(String gameId, long sequence, byte[] state) {
+            logReceived();
+            try {
+                board.restore(SnapshotCodec.decode(state), sequence);
+                gameOver = board.getGameOver();
+            } catch (IllegalArgumentException e) {
+                Log.error("bad snapshot: " + e.getMessage());
+            }
+        }
+
+
+        @Override
+        public boolean delta(long sequence) {
+            return board.acceptChange(sequence);
+        }
+
+
+        @Override
+        public void error(String message) {
+            Log.error(message);
+        }
+
+
+        @Override
+        public void gameOver() {
+            board.setGameOver();
+            Log.info(GAME_OVER);
+            gameOver = true;
+        }
+
+
+        /**
+         * Logs the line just received, only building it when INFO is on.
+         *
+         */
+        void logReceived() {
+            if (Log.isEnabled(Log.Level.INFO)) {
+                Log.info("from server : " + decoder.currentLine());
+            }
+        }
+    }
+
+
+    /**
+     * Works out the board after each decoded message and queues the
+     * change for the model thread.
+     * Keeps its own copy of the board, starting from the model's, so the
+     * model is only touched by the model thread.
+     *
+     */
+    private class QueuedUpdater extends ModelUpdater {
+
+        /** the board after the last message */
+        private BoardState state = board.getBoard();
+        /** sequence number of the last numbered change */
+        private long sequence = board.getSequence();
+
+
+        @Override
+        public void card(int row, int col, int cardId) {
+            if (revealTimer != null) {
+                revealTimer.received(row, col);
+            }
+            long receivedAt = System.nanoTime();
+            logReceived();
+            state = state.reveal(row, col, cardId);
+            queue.put(BoardEvent.NOT_MATCHED, row * state.getDIM() + col,
+                    state, sequence, receivedAt);
+        }
+
+
+        @Override
+        public void match(int card1_row, int card1_col, int card2_row,
+                          int card2_col) {
+            long receivedAt = System.nanoTime();
+            logReceived();
+            state = state.match(card1_row, card1_col, card2_row, card2_col);
+            queue.put(BoardEvent.MATCHED, card1_row * state.getDIM()
+                    + card1_col, state, sequence, receivedAt);
+            queue.put(BoardEvent.MATCHED, card2_row * state.getDIM()
+                    + card2_col, state, sequence, receivedAt);
+        }
+
+
+        @Override
+        public void mismatch(int card1_row, int card1_col, int card2_row,
+                             int card2_col) {
+            long receivedAt = System.nanoTime();
+            logReceived();
+            state = state.hide(card1_row, card1_col, card2_row, card2_col);
+            queue.put(BoardEvent.NOT_MATCHED, card1_row * state.getDIM()
+                    + card1_col, state, sequence, receivedAt);
+            queue.put(BoardEvent.NOT_MATCHED, card2_row * state.getDIM()
+                    + card2_col, state, sequence, receivedAt);
+        }
+
+
+        @Override
+        public void snapshot(String gameId, long sequence, byte[] state) {
+            long receivedAt = System.nanoTime();
+            logReceived();
+            try {
+                this.state = SnapshotCodec.decode(state);
+            } catch (IllegalArgumentException e) {
+                Log.error("bad snapshot: " + e.getMessage());
+                return;
+            }
+            this.sequence = sequence;
+            queue.put(BoardEvent.CREATE, 0, this.state, sequence,
+                    receivedAt);
+            gameOver = this.state.getGameOver();
+        }
+
+
+        @Override
+        public boolean delta(long sequence) {
+            if (sequence <= this.sequence) {
+                return false;
+            }
+            this.sequence = sequence;
+            return true;
+        }
+
+
+        @Override
+        public void gameOver() {
+            state = state.endGame();
+            queue.put(BoardEvent.GAME_OVER, 0, state, sequence,
+                    System.nanoTime());
+            Log.info(GAME_OVER);
+            gameOver = true;
+        }
     }
 }
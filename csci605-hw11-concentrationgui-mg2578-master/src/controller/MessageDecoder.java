@@ -0,0 +1,397 @@
+/*
+Homework 11 : Concentration GUI
+File Name : MessageDecoder.java
+ */
+package controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import recording.SessionRecorder;
+import static common.ConcentrationProtocol.*;
+import static sync.SyncProtocol.DELTA;
+import static sync.SyncProtocol.SNAPSHOT;
+
+/**
+ * Decodes the line based server protocol straight from the bytes read off
+ * the socket. Messages are matched on their first word and their numbers
+ * are parsed in place, then handed to a MessageHandler as primitives.
+ * Lines that are not part of the protocol are skipped.
+ * A DELTA prefix is passed on first, then the message it carries.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class MessageDecoder {
+
+    /** initial size of the read buffer */
+    private static final int BUFFER_SIZE = 8192;
+    /** number of letters used in card names */
+    private static final int LETTERS = 26;
+    /** most digits in a number, any 18 digits fit in a long */
+    private static final int MAX_DIGITS = 18;
+    /** most letters in a card name, any 6 letters fit in an int */
+    private static final int MAX_LETTERS = 6;
+    /** message keywords as bytes */
+    private static final byte[] BOARD_DIM_BYTES = bytes(BOARD_DIM);
+    private static final byte[] CARD_BYTES = bytes(CARD);
+    private static final byte[] MATCH_BYTES = bytes(MATCH);
+    private static final byte[] MISMATCH_BYTES = bytes(MISMATCH);
+    private static final byte[] ERROR_BYTES = bytes(ERROR);
+    private static final byte[] GAME_OVER_BYTES = bytes(GAME_OVER);
+    private static final byte[] SNAPSHOT_BYTES = bytes(SNAPSHOT);
+    private static final byte[] DELTA_BYTES = bytes(DELTA);
+
+    /** stream to read from */
+    private final InputStream in;
+    /** bytes read from the stream */
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    /** start of the bytes not decoded yet */
+    private int start;
+    /** end of the bytes read so far */
+    private int end;
+    /** position up to which the buffer has been searched for a newline */
+    private int scanned;
+    /** start of the current message */
+    private int lineStart;
+    /** end of the current message, without the line terminator */
+    private int lineEnd;
+    /** read position inside the current message */
+    private int pos;
+    /** records every message decoded, null if not recording */
+    private SessionRecorder recorder;
+
+
+    /**
+     * Constructor
+     *
+     * @param in    stream to read from
+     */
+    public MessageDecoder(InputStream in) {
+        this.in = in;
+    }
+
+
+    /**
+     * Decodes the next message and passes it to the handler.
+     * Blocks only when no complete message is buffered, so a burst that
+     * arrived in one read is handed over without touching the socket again.
+     *
+     * @param handler    receives the decoded message
+     * @return false at end of stream, else true.
+     * @throws IOException if reading from the stream fails
+     *
+     */
+    public boolean next(MessageHandler handler) throws IOException {
+        int newline = findNewline();
+        while (newline < 0) {
+            if (!fill()) {
+//                last message may not end with a newline.
+                if (start == end) {
+                    return false;
+                }
+                newline = end;
+                break;
+            }
+            newline = findNewline();
+        }
+        lineStart = start;
+        lineEnd = newline;
+        if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r') {
+            lineEnd--;
+        }
+        start = Math.min(newline + 1, end);
+        if (recorder != null) {
+            recorder.record(SessionRecorder.INBOUND, buffer, lineStart,
+                    lineEnd - lineStart);
+        }
+        dispatch(handler);
+        return true;
+    }
+
+
+    /**
+     * Records every message decoded from now on.
+     *
+     * @param recorder    the recorder, null to stop recording
+     *
+     */
+    public void setRecorder(SessionRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+
+    /**
+     * Gets the current message as a String.
+     * Only creates the string when asked, for logging and errors.
+     *
+     * @return the last decoded message
+     *
+     */
+    public String currentLine() {
+        return new String(buffer, lineStart, lineEnd - lineStart,
+                StandardCharsets.US_ASCII);
+    }
+
+
+    /**
+     * Closes the stream.
+     *
+     * @throws IOException if closing the stream fails
+     *
+     */
+    public void close() throws IOException {
+        in.close();
+    }
+
+
+    /**
+     * Matches the first word of the current message and calls the handler.
+     *
+     * @param handler    receives the decoded message
+     *
+     */
+    private void dispatch(MessageHandler handler) {
+        pos = lineStart;
+        if (keyword(DELTA_BYTES)) {
+            if (!handler.delta(nextLong())) {
+                return;
+            }
+            skipSpaces();
+        }
+        if (keyword(CARD_BYTES)) {
+            int row = nextInt();
+            int col = nextInt();
+            handler.card(row, col, nextCardId());
+        }
+        else if (keyword(MATCH_BYTES)) {
+            handler.match(nextInt(), nextInt(), nextInt(), nextInt());
+        }
+        else if (keyword(MISMATCH_BYTES)) {
+            handler.mismatch(nextInt(), nextInt(), nextInt(), nextInt());
+        }
+        else if (keyword(ERROR_BYTES)) {
+            handler.error(currentLine());
+        }
+        else if (keyword(GAME_OVER_BYTES)) {
+            handler.gameOver();
+        }
+        else if (keyword(BOARD_DIM_BYTES)) {
+            handler.boardDimension(nextInt());
+        }
+        else if (keyword(SNAPSHOT_BYTES)) {
+            String gameId = nextWord();
+            long sequence = nextLong();
+            skipSpaces();
+            ByteBuffer board = Base64.getDecoder().decode(
+                    ByteBuffer.wrap(buffer, pos, lineEnd - pos));
+            byte[] state = new byte[board.remaining()];
+            board.get(state);
+            handler.snapshot(gameId, sequence, state);
+        }
+    }
+
+
+    /**
+     * Checks whether the rest of the current message starts with the
+     * given word and moves past it if it does.
+     *
+     * @param word    the word to match
+     * @return true if the message continues with the word.
+     *
+     */
+    private boolean keyword(byte[] word) {
+        int length = word.length;
+        if (lineEnd - pos < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[pos + i] != word[i]) {
+                return false;
+            }
+        }
+        int after = pos + length;
+        if (after < lineEnd && buffer[after] != ' ') {
+            return false;
+        }
+        pos = after;
+        return true;
+    }
+
+
+    /**
+     * Parses the next number of the current message.
+     *
+     * @return the number
+     * @throws NumberFormatException if there is no number or it does not
+     *                               fit in an int
+     *
+     */
+    private int nextInt() {
+        long value = nextLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("number too large: "
+                    + currentLine());
+        }
+        return (int) value;
+    }
+
+
+    /**
+     * Parses the next number of the current message as a long, for
+     * sequence numbers.
+     *
+     * @return the number
+     * @throws NumberFormatException if there is no number or it has more
+     *                               than MAX_DIGITS digits
+     *
+     */
+    private long nextLong() {
+        skipSpaces();
+        long value = 0;
+        int digits = 0;
+        while (pos < lineEnd && buffer[pos] >= '0' && buffer[pos] <= '9') {
+            value = value * 10 + (buffer[pos] - '0');
+            pos++;
+            digits++;
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("malformed message: "
+                    + currentLine());
+        }
+//        a longer number may have wrapped, so it is rejected whole.
+        if (digits > MAX_DIGITS) {
+            throw new NumberFormatException("number too large: "
+                    + currentLine());
+        }
+        return value;
+    }
+
+
+    /**
+     * Gets the next word of the current message as a String.
+     *
+     * @return the word
+     *
+     */
+    private String nextWord() {
+        skipSpaces();
+        int wordStart = pos;
+        while (pos < lineEnd && buffer[pos] != ' ') {
+            pos++;
+        }
+        if (pos == wordStart) {
+            throw new NumberFormatException("malformed message: "
+                    + currentLine());
+        }
+        return new String(buffer, wordStart, pos - wordStart,
+                StandardCharsets.US_ASCII);
+    }
+
+
+    /**
+     * Parses the card name of the current message into a card id.
+     * Names are numbers, or letters counted A = 0 to Z = 25, AA = 26 and
+     * so on, as in ConcentrationModel.cardId.
+     *
+     * @return the card id
+     *
+     */
+    private int nextCardId() {
+        skipSpaces();
+        if (pos < lineEnd && buffer[pos] >= '0' && buffer[pos] <= '9') {
+            return nextInt();
+        }
+        int id = 0;
+        int letters = 0;
+        while (pos < lineEnd && buffer[pos] >= 'A' && buffer[pos] <= 'Z') {
+            id = id * LETTERS + (buffer[pos] - 'A' + 1);
+            pos++;
+            letters++;
+        }
+        if (letters == 0) {
+            throw new NumberFormatException("malformed message: "
+                    + currentLine());
+        }
+        if (letters > MAX_LETTERS) {
+            throw new NumberFormatException("card name too long: "
+                    + currentLine());
+        }
+        return id - 1;
+    }
+
+
+    /**
+     * Moves the read position past any spaces.
+     *
+     */
+    private void skipSpaces() {
+        while (pos < lineEnd && buffer[pos] == ' ') {
+            pos++;
+        }
+    }
+
+
+    /**
+     * Finds the end of the next buffered message.
+     *
+     * @return index of the newline, or -1 if no complete message is buffered
+     *
+     */
+    private int findNewline() {
+        if (scanned < start) {
+            scanned = start;
+        }
+        while (scanned < end) {
+            if (buffer[scanned] == '\n') {
+                return scanned;
+            }
+            scanned++;
+        }
+        return -1;
+    }
+
+
+    /**
+     * Reads more bytes from the stream, blocking until some arrive.
+     * Moves undecoded bytes to the front of the buffer first, and grows
+     * the buffer if a single message does not fit.
+     *
+     * @return false at end of stream, else true.
+     * @throws IOException if reading from the stream fails
+     *
+     */
+    private boolean fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            scanned -= start;
+            start = 0;
+        }
+        if (end == buffer.length) {
+            byte[] larger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, larger, 0, end);
+            buffer = larger;
+        }
+        int read = in.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            return false;
+        }
+        end += read;
+        return true;
+    }
+
+
+    /**
+     * Converts a protocol word to bytes.
+     *
+     * @param word    the word
+     * @return the word as ASCII bytes
+     *
+     */
+    private static byte[] bytes(String word) {
+        return word.getBytes(StandardCharsets.US_ASCII);
+    }
+}
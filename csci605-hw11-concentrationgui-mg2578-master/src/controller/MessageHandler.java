@@ -0,0 +1,95 @@
+/*
+Homework 11 : Concentration GUI
+File Name : MessageHandler.java
+ */
+package controller;
+
+/**
+ * Receives decoded server messages from a MessageDecoder.
+ * Every message is passed on as primitive values, so decoding a message
+ * does not create any intermediate strings or arrays.
+ * All methods do nothing by default.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public interface MessageHandler {
+
+    /**
+     * Called for a BOARD_DIM message.
+     *
+     * @param boardDimension    board dimension
+     *
+     */
+    default void boardDimension(int boardDimension) {}
+
+    /**
+     * Called for a CARD message.
+     *
+     * @param row       row
+     * @param col       column
+     * @param cardId    id of the card
+     *
+     */
+    default void card(int row, int col, int cardId) {}
+
+    /**
+     * Called for a MATCH message.
+     *
+     * @param card1_row    row of first card
+     * @param card1_col    column of first card
+     * @param card2_row    row of second card
+     * @param card2_col    column of second card
+     *
+     */
+    default void match(int card1_row, int card1_col, int card2_row,
+                       int card2_col) {}
+
+    /**
+     * Called for a MISMATCH message.
+     *
+     * @param card1_row    row of first card
+     * @param card1_col    column of first card
+     * @param card2_row    row of second card
+     * @param card2_col    column of second card
+     *
+     */
+    default void mismatch(int card1_row, int card1_col, int card2_row,
+                          int card2_col) {}
+
+    /**
+     * Called for an ERROR message.
+     *
+     * @param message    the full error message
+     *
+     */
+    default void error(String message) {}
+
+    /**
+     * Called for a GAME_OVER message.
+     *
+     */
+    default void gameOver() {}
+
+    /**
+     * Called for a SNAPSHOT message.
+     *
+     * @param gameId      id to resume the game with
+     * @param sequence    sequence number of the last change in the board
+     * @param state       the board, as encoded by SnapshotCodec
+     *
+     */
+    default void snapshot(String gameId, long sequence, byte[] state) {}
+
+    /**
+     * Called for the DELTA prefix of a message, before the message itself.
+     *
+     * @param sequence    sequence number of the change
+     * @return true to handle the message, false to skip it as already
+     *         applied.
+     *
+     */
+    default boolean delta(long sequence) {
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+Homework 11 : Concentration GUI
+File Name : RevealTimer.java
+ */
+package controller;
+
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Times each REVEAL from being sent until the server's CARD for the same
+ * card arrives, and records the result in the metrics registry.
+ * Shared by the controller, which marks sends, and the Listener, which
+ * marks arrivals.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+class RevealTimer {
+
+    /** board dimension */
+    private final int boardDimension;
+    /** time each card's REVEAL was sent, 0 if none is outstanding */
+    private final AtomicLongArray sentAt;
+    /** REVEAL to CARD times */
+    private final Histogram sendToCard =
+            MetricsRegistry.get().histogram(MetricsRegistry.SEND_TO_CARD);
+
+
+    /**
+     * Constructor
+     *
+     * @param boardDimension    board dimension
+     */
+    RevealTimer(int boardDimension) {
+        this.boardDimension = boardDimension;
+        this.sentAt = new AtomicLongArray(boardDimension * boardDimension);
+    }
+
+
+    /**
+     * Marks a REVEAL as sent.
+     *
+     * @param row    row
+     * @param col    column
+     * @param now    send time, from System.nanoTime()
+     *
+     */
+    void sent(int row, int col, long now) {
+        sentAt.set(row * boardDimension + col, now);
+    }
+
+
+    /**
+     * Marks a CARD as received and records its round trip, if the card
+     * was requested by this client.
+     *
+     * @param row    row
+     * @param col    column
+     *
+     */
+    void received(int row, int col) {
+        if (row >= boardDimension || col >= boardDimension) {
+            return;
+        }
+        long sent = sentAt.getAndSet(row * boardDimension + col, 0);
+        if (sent != 0) {
+            sendToCard.record(System.nanoTime() - sent);
+        }
+    }
+}
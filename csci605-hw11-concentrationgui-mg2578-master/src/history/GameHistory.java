@@ -0,0 +1,489 @@
+/*
+Homework 11 : Concentration GUI
+File Name : GameHistory.java
+ */
+package history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stores finished games in an append-only file of fixed-width records,
+ * read and written through memory mappings.
+ * Each record links back to the previous game of the same player and of
+ * the same board size, so the file itself is the index: listing a
+ * player's games walks that chain without reading anything else. Best and
+ * average scores per player and per board size are kept up to date as
+ * games are added and rebuilt by one pass over the mapped file on open,
+ * so queries never load the records onto the heap.
+ * A record is marked complete by its last byte, written only once the
+ * rest of the record has been forced to the storage device, since a
+ * record can span two pages and a power loss may save one without the
+ * other. On open, a record a crash left unfinished is cleared. A game
+ * added since the last sync() may be lost to a power loss, but never
+ * shows up half written.
+ *
+ * Usage: java history.GameHistory file [--dim=N] [--player=NAME]
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class GameHistory implements AutoCloseable {
+
+    /** first long of every history file */
+    private static final long MAGIC = 0x434F4E4348495354L;
+    /** version of the file layout */
+    private static final int VERSION = 1;
+    /** size of a record, and of the header in front of the first one */
+    private static final int RECORD_SIZE = 48;
+    /** records mapped at a time, the header counts as one */
+    private static final int SLOTS_PER_REGION = 1 << 20;
+    /** marks a complete record */
+    private static final byte COMPLETE = 1;
+
+//    header layout.
+    /** offset of the number of records in the header */
+    private static final int HEADER_COUNT = 12;
+//    record layout.
+    /** offset of the player key */
+    private static final int PLAYER = 0;
+    /** offset of the time the game finished, epoch millis */
+    private static final int FINISHED_AT = 8;
+    /** offset of the previous record of the same player */
+    private static final int PREVIOUS_OF_PLAYER = 16;
+    /** offset of the previous record on the same board size */
+    private static final int PREVIOUS_OF_DIM = 24;
+    /** offset of the moves */
+    private static final int MOVES = 32;
+    /** offset of the matches */
+    private static final int MATCHES = 36;
+    /** offset of the game length in milliseconds */
+    private static final int DURATION = 40;
+    /** offset of the board dimension */
+    private static final int DIM = 44;
+    /** offset of the complete marker */
+    private static final int MARKER = RECORD_SIZE - 1;
+
+    /** the file */
+    private final RandomAccessFile file;
+    /** channel of the file */
+    private final FileChannel channel;
+    /** mapped regions, in file order */
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    /** number of complete records */
+    private long count;
+    /** scores of each player, by player key */
+    private final Map<Long, Scores> players = new HashMap<>();
+    /** scores of each board size, by dimension */
+    private final Map<Integer, Scores> boards = new HashMap<>();
+
+
+    /**
+     * Scores of a player or board size.
+     *
+     */
+    public static final class Scores {
+
+        /** games played */
+        private long games;
+        /** total moves of those games */
+        private long totalMoves;
+        /** fewest moves to finish a game */
+        private int bestMoves = Integer.MAX_VALUE;
+        /** latest record, -1 if none */
+        private long latest = -1;
+
+
+        /**
+         * Adds a game.
+         *
+         * @param moves     moves of the game
+         * @param record    number of its record
+         *
+         */
+        private void add(int moves, long record) {
+            games++;
+            totalMoves += moves;
+            bestMoves = Math.min(bestMoves, moves);
+            latest = record;
+        }
+
+
+        /**
+         * Get number of games played.
+         *
+         * @return games played
+         */
+        public long getGames() {
+            return games;
+        }
+
+
+        /**
+         * Get fewest moves to finish a game.
+         *
+         * @return best moves, 0 without games
+         */
+        public int getBestMoves() {
+            return games == 0 ? 0 : bestMoves;
+        }
+
+
+        /**
+         * Get average moves per game.
+         *
+         * @return average moves, 0 without games
+         */
+        public double getAverageMoves() {
+            return games == 0 ? 0 : (double) totalMoves / games;
+        }
+
+
+        @Override
+        public String toString() {
+            return String.format("games=%d best=%d average=%.2f", games,
+                    getBestMoves(), getAverageMoves());
+        }
+    }
+
+
+    /**
+     * Constructor.
+     * Opens or creates a history file, clears any record a crash left
+     * unfinished and rebuilds the scores.
+     *
+     * @param path    the history file
+     * @throws IOException if the file cannot be opened or is not a history
+     */
+    public GameHistory(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "rw");
+        this.channel = file.getChannel();
+        boolean created = channel.size() == 0;
+        MappedByteBuffer header = region(0);
+        if (created) {
+            header.putLong(0, MAGIC);
+            header.putInt(8, VERSION);
+        }
+        else if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION) {
+            file.close();
+            throw new IOException(path + " is not a game history");
+        }
+        recover(header.getLong(HEADER_COUNT));
+    }
+
+
+    /**
+     * Adds a finished game.
+     * Waits for the record to reach the storage device before marking it
+     * complete.
+     *
+     * @param player            name of the player
+     * @param boardDimension    board dimension
+     * @param moves             moves made
+     * @param matches           pairs matched
+     * @param durationMillis    length of the game
+     * @param finishedAt        time the game finished, epoch millis
+     * @throws IOException if the file cannot be extended
+     *
+     */
+    public synchronized void add(String player, int boardDimension, int moves,
+                                 int matches, long durationMillis,
+                                 long finishedAt) throws IOException {
+        long key = playerKey(player);
+        long record = count;
+        MappedByteBuffer buffer = region(slot(record));
+        int at = offset(record);
+        Scores ofPlayer = players.computeIfAbsent(key, k -> new Scores());
+        Scores ofBoard = boards.computeIfAbsent(boardDimension,
+                k -> new Scores());
+        buffer.putLong(at + PLAYER, key);
+        buffer.putLong(at + FINISHED_AT, finishedAt);
+        buffer.putLong(at + PREVIOUS_OF_PLAYER, ofPlayer.latest);
+        buffer.putLong(at + PREVIOUS_OF_DIM, ofBoard.latest);
+        buffer.putInt(at + MOVES, moves);
+        buffer.putInt(at + MATCHES, matches);
+        buffer.putInt(at + DURATION,
+                (int) Math.min(Integer.MAX_VALUE, durationMillis));
+        buffer.putShort(at + DIM, (short) boardDimension);
+//        the record must be on disk before the marker that vouches for it.
+        buffer.force(at, MARKER);
+        buffer.put(at + MARKER, COMPLETE);
+        ofPlayer.add(moves, record);
+        ofBoard.add(moves, record);
+        count = record + 1;
+        regions.get(0).putLong(HEADER_COUNT, count);
+    }
+
+
+    /**
+     * Get number of games stored.
+     *
+     * @return games stored
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+
+    /**
+     * Gets the scores of a player.
+     *
+     * @param player    name of the player
+     * @return the scores, with no games if the player never finished one
+     *
+     */
+    public synchronized Scores getPlayerScores(String player) {
+        return copy(players.get(playerKey(player)));
+    }
+
+
+    /**
+     * Gets the scores of a board size.
+     *
+     * @param boardDimension    board dimension
+     * @return the scores, with no games if none was played on it
+     *
+     */
+    public synchronized Scores getBoardScores(int boardDimension) {
+        return copy(boards.get(boardDimension));
+    }
+
+
+    /**
+     * Gets the moves of a player's latest games, newest first, following
+     * the player's chain of records.
+     *
+     * @param player    name of the player
+     * @param limit     most games returned
+     * @return moves of each game
+     *
+     */
+    public synchronized int[] getRecentMoves(String player, int limit) {
+        return recentMoves(players.get(playerKey(player)), limit,
+                PREVIOUS_OF_PLAYER);
+    }
+
+
+    /**
+     * Gets the moves of the latest games on a board size, newest first,
+     * following the board size's chain of records.
+     *
+     * @param boardDimension    board dimension
+     * @param limit             most games returned
+     * @return moves of each game
+     *
+     */
+    public synchronized int[] getRecentMoves(int boardDimension, int limit) {
+        return recentMoves(boards.get(boardDimension), limit,
+                PREVIOUS_OF_DIM);
+    }
+
+
+    /**
+     * Writes all changes to the storage device.
+     *
+     */
+    public synchronized void sync() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+    }
+
+
+    /**
+     * Writes all changes out and closes the file.
+     *
+     * @throws IOException if closing the file fails
+     *
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        file.close();
+    }
+
+
+    /**
+     * The main method.
+     * Prints the scores stored in a history file.
+     *
+     * @param args    command line arguments
+     * @throws IOException if the file cannot be read
+     *
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java history.GameHistory <file> "
+                    + "[--dim=N] [--player=NAME]");
+            System.exit(1);
+        }
+        try (GameHistory history = new GameHistory(new File(args[0]))) {
+            System.out.println(history.getCount() + " games");
+            for (int i = 1; i < args.length; i++) {
+                String value = args[i].substring(args[i].indexOf('=') + 1);
+                if (args[i].startsWith("--dim=")) {
+                    System.out.println("DIM=" + value + ": " + history
+                            .getBoardScores(Integer.parseInt(value)));
+                }
+                else if (args[i].startsWith("--player=")) {
+                    System.out.println(value + ": "
+                            + history.getPlayerScores(value));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Rebuilds the scores from the records. Records completed after the
+     * header count was last written are kept, the record a crash may
+     * have left unfinished is cleared.
+     *
+     * @param recorded    number of records according to the header
+     * @throws IOException if the file cannot be mapped
+     *
+     */
+    private void recover(long recorded) throws IOException {
+        long record = 0;
+        while (true) {
+            MappedByteBuffer buffer = region(slot(record));
+            int at = offset(record);
+            if (buffer.get(at + MARKER) != COMPLETE) {
+//                a record is all or nothing, clear what was written of it.
+                for (int i = 0; i < RECORD_SIZE; i++) {
+                    buffer.put(at + i, (byte) 0);
+                }
+                break;
+            }
+            int moves = buffer.getInt(at + MOVES);
+            players.computeIfAbsent(buffer.getLong(at + PLAYER),
+                    k -> new Scores()).add(moves, record);
+            boards.computeIfAbsent((int) buffer.getShort(at + DIM),
+                    k -> new Scores()).add(moves, record);
+            record++;
+        }
+        count = record;
+        if (count != recorded) {
+            regions.get(0).putLong(HEADER_COUNT, count);
+        }
+    }
+
+
+    /**
+     * Follows a chain of records back from the latest.
+     *
+     * @param scores      scores holding the latest record, may be null
+     * @param limit       most games returned
+     * @param previous    offset of the link to the previous record
+     * @return moves of each game, newest first
+     *
+     */
+    private int[] recentMoves(Scores scores, int limit, int previous) {
+        if (scores == null) {
+            return new int[0];
+        }
+        int[] moves = new int[(int) Math.min(limit, scores.games)];
+        long record = scores.latest;
+        for (int i = 0; i < moves.length; i++) {
+            MappedByteBuffer buffer = regions.get(
+                    (int) (slot(record) / SLOTS_PER_REGION));
+            int at = offset(record);
+            moves[i] = buffer.getInt(at + MOVES);
+            record = buffer.getLong(at + previous);
+        }
+        return moves;
+    }
+
+
+    /**
+     * Gets the region holding a slot, mapping regions up to it if needed.
+     *
+     * @param slot    the slot, 0 is the header
+     * @return the region
+     * @throws IOException if the file cannot be mapped
+     *
+     */
+    private MappedByteBuffer region(long slot) throws IOException {
+        int index = (int) (slot / SLOTS_PER_REGION);
+        while (regions.size() <= index) {
+            long start = (long) regions.size() * SLOTS_PER_REGION
+                    * RECORD_SIZE;
+            regions.add(channel.map(FileChannel.MapMode.READ_WRITE, start,
+                    (long) SLOTS_PER_REGION * RECORD_SIZE));
+        }
+        return regions.get(index);
+    }
+
+
+    /**
+     * Gets the slot of a record, the header takes the first.
+     *
+     * @param record    number of the record
+     * @return its slot
+     *
+     */
+    private static long slot(long record) {
+        return record + 1;
+    }
+
+
+    /**
+     * Gets the offset of a record inside its region.
+     *
+     * @param record    number of the record
+     * @return its offset
+     *
+     */
+    private static int offset(long record) {
+        return (int) (slot(record) % SLOTS_PER_REGION) * RECORD_SIZE;
+    }
+
+
+    /**
+     * Copies scores, so callers never see them change.
+     *
+     * @param scores    the scores, may be null
+     * @return the copy
+     *
+     */
+    private static Scores copy(Scores scores) {
+        Scores copy = new Scores();
+        if (scores != null) {
+            copy.games = scores.games;
+            copy.totalMoves = scores.totalMoves;
+            copy.bestMoves = scores.bestMoves;
+            copy.latest = scores.latest;
+        }
+        return copy;
+    }
+
+
+    /**
+     * Hashes a player name to the key stored in the records.
+     * Names are compared without case, the same in every locale; a
+     * 64-bit FNV-1a hash keeps collisions out of reach for any realistic
+     * number of players.
+     *
+     * @param player    name of the player
+     * @return the key
+     *
+     */
+    private static long playerKey(String player) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : player.trim().toLowerCase(Locale.ROOT)
+                .getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+Homework 11 : Concentration GUI
+File Name : HistoryRecorder.java
+ */
+package history;
+
+import logging.Log;
+import model.BoardEvent;
+import model.BoardObserver;
+import model.ConcentrationModel;
+import java.io.IOException;
+
+/**
+ * Adds every game a model plays to the end to a game history.
+ * A game is added once, when it turns over; a board restored already
+ * finished, such as a snapshot after a reconnect, is not added again.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class HistoryRecorder implements BoardObserver {
+
+    /** the history */
+    private final GameHistory history;
+    /** name of the player */
+    private final String player;
+    /** time the current game started, epoch millis */
+    private long startedAt;
+    /** true once the current game is over, as added or as restored */
+    private boolean finished;
+
+
+    /**
+     * Constructor.
+     *
+     * @param history    the history
+     * @param player     name of the player
+     */
+    public HistoryRecorder(GameHistory history, String player) {
+        this.history = history;
+        this.player = player;
+    }
+
+
+    /**
+     * Notes when a game starts and stores it once it is over.
+     *
+     * @param model     the model
+     * @param event     what changed
+     * @param cell      the card changed
+     * @param cardId    id of the card if it is face up, else -1
+     *
+     */
+    @Override
+    public void onEvent(ConcentrationModel model, BoardEvent event, int cell,
+                        int cardId) {
+        switch (event) {
+            case CREATE -> {
+//                a resumed game keeps the time it started.
+                if (model.getNumMoves() == 0 || startedAt == 0) {
+                    startedAt = System.currentTimeMillis();
+                }
+//                the board is already in place, restored ones may be over.
+                finished = model.getGameOver();
+            }
+            case GAME_OVER -> {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                long now = System.currentTimeMillis();
+                try {
+                    history.add(player, model.getDIM(), model.getNumMoves(),
+                            model.getMatches(), now - startedAt, now);
+                } catch (IOException e) {
+                    Log.error("could not store game: " + e.getMessage());
+                }
+            }
+            default -> { }
+        }
+    }
+}
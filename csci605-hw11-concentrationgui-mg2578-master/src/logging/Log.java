@@ -0,0 +1,240 @@
+/*
+Homework 11 : Concentration GUI
+File Name : Log.java
+ */
+package logging;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Non-blocking console logging for the message path.
+ * Logging a line only claims a slot in a bounded, lock-free ring buffer;
+ * a background thread drains the ring and does the actual console
+ * writes, so slow consoles never hold up the thread that logged. When
+ * the ring is full new lines are dropped and counted instead of waiting.
+ * The level can be changed at any time; lines below it cost one volatile
+ * read. The starting level is read from the concentration.log system
+ * property and defaults to INFO.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public final class Log {
+
+    /**
+     * Log levels, from most to least verbose.
+     *
+     */
+    public enum Level { DEBUG, INFO, ERROR, OFF }
+
+    /** number of slots in the ring, a power of two */
+    private static final int CAPACITY = 8192;
+    /** maps a sequence number to its slot */
+    private static final int MASK = CAPACITY - 1;
+
+    /** lines waiting to be written */
+    private static final AtomicReferenceArray<String> slots =
+            new AtomicReferenceArray<>(CAPACITY);
+    /** level of each waiting line, published by the line itself */
+    private static final Level[] levels = new Level[CAPACITY];
+    /** sequence number of the next line to be claimed */
+    private static final AtomicLong tail = new AtomicLong();
+    /** sequence number of the next line to be written */
+    private static volatile long head;
+    /** number of lines dropped because the ring was full */
+    private static final AtomicLong dropped = new AtomicLong();
+    /** lowest level that is logged */
+    private static volatile Level level = parseLevel(
+            System.getProperty("concentration.log"));
+    /** true while the drain thread is parked */
+    private static volatile boolean sleeping;
+    /** writes lines to the console */
+    private static final Thread drainer = startDrainer();
+
+
+    /**
+     * Constructor.
+     * No instances, all state is shared.
+     *
+     */
+    private Log() {}
+
+
+    /**
+     * Sets the lowest level that is logged.
+     *
+     * @param newLevel    the level, OFF to log nothing
+     *
+     */
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+
+    /**
+     * Checks whether a level is logged.
+     * Callers building costly messages should check this first.
+     *
+     * @param lineLevel    the level
+     * @return true if lines of this level are logged.
+     *
+     */
+    public static boolean isEnabled(Level lineLevel) {
+        return lineLevel.compareTo(level) >= 0 && lineLevel != Level.OFF;
+    }
+
+
+    /**
+     * Logs a line at DEBUG level.
+     *
+     * @param line    the line, null is logged as "null"
+     *
+     */
+    public static void debug(String line) {
+        log(Level.DEBUG, line);
+    }
+
+
+    /**
+     * Logs a line at INFO level.
+     *
+     * @param line    the line, null is logged as "null"
+     *
+     */
+    public static void info(String line) {
+        log(Level.INFO, line);
+    }
+
+
+    /**
+     * Logs a line at ERROR level. Error lines go to standard error.
+     *
+     * @param line    the line, null is logged as "null"
+     *
+     */
+    public static void error(String line) {
+        log(Level.ERROR, line);
+    }
+
+
+    /**
+     * Get number of lines dropped because the ring was full.
+     *
+     * @return dropped lines
+     */
+    public static long getDropped() {
+        return dropped.get();
+    }
+
+
+    /**
+     * Waits until every queued line has been written.
+     *
+     */
+    public static void flush() {
+        while (head < tail.get()) {
+            Thread.yield();
+        }
+    }
+
+
+    /**
+     * Queues a line for the drain thread.
+     *
+     * @param lineLevel    level of the line
+     * @param line         the line
+     *
+     */
+    private static void log(Level lineLevel, String line) {
+        if (!isEnabled(lineLevel)) {
+            return;
+        }
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        int slot = (int) (sequence & MASK);
+        levels[slot] = lineLevel;
+//        publishing the line also publishes its level. an empty slot
+//        means not yet published, so a null line is written as "null".
+        slots.set(slot, String.valueOf(line));
+        if (sleeping) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+
+    /**
+     * Reads a level name in any case.
+     * Falls back to INFO, so a typo in the property never stops the
+     * class from loading.
+     *
+     * @param name    level name, may be null
+     * @return the level
+     *
+     */
+    private static Level parseLevel(String name) {
+        if (name == null) {
+            return Level.INFO;
+        }
+        try {
+            return Level.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("unknown log level " + name + ", using "
+                    + Level.INFO);
+            return Level.INFO;
+        }
+    }
+
+
+    /**
+     * Starts the daemon thread that writes queued lines.
+     *
+     * @return the thread
+     *
+     */
+    private static Thread startDrainer() {
+        Thread thread = new Thread(Log::drain, "log-drainer");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+
+    /**
+     * Writes queued lines in order, parking while the ring is empty.
+     *
+     */
+    private static void drain() {
+        while (true) {
+            boolean wrote = false;
+            String line;
+            while ((line = slots.get((int) (head & MASK))) != null) {
+                int slot = (int) (head & MASK);
+                PrintStream out = levels[slot] == Level.ERROR ? System.err
+                        : System.out;
+                out.println(line);
+                slots.set(slot, null);
+                head = head + 1;
+                wrote = true;
+            }
+            if (wrote) {
+                System.out.flush();
+                continue;
+            }
+            sleeping = true;
+            if (slots.get((int) (head & MASK)) == null) {
+                LockSupport.park();
+            }
+            sleeping = false;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+Homework 11 : Concentration GUI
+File Name : Histogram.java
+ */
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe histogram of non-negative values, such as latencies in
+ * nanoseconds, in the style of an HDR histogram.
+ * Values below 64 are counted exactly; larger values fall into buckets
+ * whose width grows with the value, 32 buckets per power of two, which
+ * keeps every percentile within about 3% of the true value using a fixed
+ * 15 KB of counters. Recording never locks or allocates.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class Histogram {
+
+    /** bits of precision kept for every value */
+    private static final int SUB_BITS = 6;
+    /** values below this are counted exactly */
+    private static final int LINEAR = 1 << SUB_BITS;
+    /** buckets per power of two above the linear range */
+    private static final int HALF = LINEAR / 2;
+    /** total number of buckets */
+    private static final int BUCKETS = LINEAR + (Long.SIZE - SUB_BITS) * HALF;
+
+    /** count of each bucket */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /** number of values recorded */
+    private final AtomicLong count = new AtomicLong();
+    /** sum of values recorded */
+    private final AtomicLong sum = new AtomicLong();
+    /** largest value recorded */
+    private final AtomicLong max = new AtomicLong();
+
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value    the value
+     *
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long previous = max.get();
+        while (value > previous && !max.compareAndSet(previous, value)) {
+            previous = max.get();
+        }
+    }
+
+
+    /**
+     * Get number of values recorded.
+     *
+     * @return count
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+
+    /**
+     * Get largest value recorded.
+     *
+     * @return maximum, 0 if empty
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+
+    /**
+     * Get mean of values recorded.
+     *
+     * @return mean, 0 if empty
+     */
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+
+    /**
+     * Gets the value below which the given fraction of values fall.
+     *
+     * @param fraction    between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return the percentile, 0 if empty
+     *
+     */
+    public long percentile(double fraction) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+
+    /**
+     * Describes the histogram, scaling values to milliseconds.
+     *
+     * @return count, mean, percentiles and maximum
+     *
+     */
+    public String toMillis() {
+        return String.format("n=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f "
+                        + "p99.9=%.3f max=%.3f ms", getCount(),
+                getMean() / 1e6, percentile(0.50) / 1e6,
+                percentile(0.90) / 1e6, percentile(0.99) / 1e6,
+                percentile(0.999) / 1e6, getMax() / 1e6);
+    }
+
+
+    /**
+     * Finds the bucket of a value.
+     *
+     * @param value    the value
+     * @return bucket index
+     *
+     */
+    private static int bucket(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        int mantissa = (int) (value >>> shift);
+        return LINEAR + (shift - 1) * HALF + (mantissa - HALF);
+    }
+
+
+    /**
+     * Gets the largest value that falls into a bucket.
+     *
+     * @param bucket    bucket index
+     * @return highest value of the bucket
+     *
+     */
+    private static long highestValue(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR) / HALF + 1;
+        long mantissa = (bucket - LINEAR) % HALF + HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
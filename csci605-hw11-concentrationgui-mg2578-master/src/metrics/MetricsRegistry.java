@@ -0,0 +1,168 @@
+/*
+Homework 11 : Concentration GUI
+File Name : MetricsRegistry.java
+ */
+package metrics;
+
+import java.io.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The process wide registry of client metrics: latency histograms,
+ * counters and gauges, each looked up by name.
+ * Looking up a metric is the only step that may allocate, so hot paths
+ * should keep the returned object rather than look it up each time.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public final class MetricsRegistry {
+
+    /** time from a click to its REVEAL being written, in nanoseconds */
+    public static final String CLICK_TO_SEND = "click_to_reveal_sent";
+    /** time from a REVEAL being sent to its CARD arriving, in nanoseconds */
+    public static final String SEND_TO_CARD = "reveal_sent_to_card";
+    /** time from the model changing to the change being drawn */
+    public static final String RECEIVE_TO_RENDER = "receive_to_render";
+    /** messages received from the server */
+    public static final String MESSAGES = "messages_received";
+    /** runnables queued on the JavaFX Application thread, not run yet */
+    public static final String FX_QUEUE = "fx_queue_depth";
+    /** connection lost to reconnected times */
+    public static final String RECONNECT = "reconnect";
+    /** SYNC sent to snapshot applied times */
+    public static final String CATCH_UP = "catch_up";
+    /** changes decoded and waiting for the model thread */
+    public static final String INBOUND_DEPTH = "inbound_queue_depth";
+    /** time the listener waited for room in the inbound queue */
+    public static final String INBOUND_STALL = "inbound_stall";
+    /** times the inbound queue was full and changes were folded */
+    public static final String INBOUND_OVERFLOWS = "inbound_overflows";
+
+    /** the registry */
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    /** histograms by name */
+    private final Map<String, Histogram> histograms =
+            new ConcurrentSkipListMap<>();
+    /** counters by name */
+    private final Map<String, AtomicLong> counters =
+            new ConcurrentSkipListMap<>();
+    /** gauges by name */
+    private final Map<String, LongSupplier> gauges =
+            new ConcurrentSkipListMap<>();
+    /** creation time, from System.nanoTime() */
+    private final long started = System.nanoTime();
+
+
+    /**
+     * Constructor.
+     * Use get().
+     *
+     */
+    private MetricsRegistry() {}
+
+
+    /**
+     * Get the registry.
+     *
+     * @return the registry
+     */
+    public static MetricsRegistry get() {
+        return INSTANCE;
+    }
+
+
+    /**
+     * Gets a histogram, creating it on first use.
+     *
+     * @param name    name of the histogram
+     * @return the histogram
+     *
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+
+    /**
+     * Gets a counter, creating it on first use.
+     *
+     * @param name    name of the counter
+     * @return the counter
+     *
+     */
+    public AtomicLong counter(String name) {
+        return counters.computeIfAbsent(name, key -> new AtomicLong());
+    }
+
+
+    /**
+     * Registers a gauge, replacing any gauge of the same name.
+     *
+     * @param name     name of the gauge
+     * @param gauge    reads the current value
+     *
+     */
+    public void gauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+
+    /**
+     * Reads a gauge.
+     *
+     * @param name    name of the gauge
+     * @return its current value, 0 if there is no such gauge
+     *
+     */
+    public long gaugeValue(String name) {
+        LongSupplier gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.getAsLong();
+    }
+
+
+    /**
+     * Describes every metric, one per line. Counters also show their
+     * average rate since the registry was created.
+     *
+     * @return the summary
+     *
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            summary.append(entry.getKey()).append(": ")
+                    .append(entry.getValue().toMillis()).append('\n');
+        }
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            long value = entry.getValue().get();
+            summary.append(entry.getKey()).append(": ").append(value)
+                    .append(String.format(" (%.1f/s)", value / seconds))
+                    .append('\n');
+        }
+        for (Map.Entry<String, LongSupplier> entry : gauges.entrySet()) {
+            summary.append(entry.getKey()).append(": ")
+                    .append(entry.getValue().getAsLong()).append('\n');
+        }
+        return summary.toString();
+    }
+
+
+    /**
+     * Writes the summary to a file.
+     *
+     * @param file    the file
+     * @throws IOException if writing fails
+     *
+     */
+    public void dump(File file) throws IOException {
+        try (Writer out = new FileWriter(file)) {
+            out.write(summary());
+        }
+    }
+}
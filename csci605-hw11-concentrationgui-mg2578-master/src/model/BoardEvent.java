@@ -0,0 +1,52 @@
+/*
+Homework 11 : Concentration GUI
+File Name : BoardEvent.java
+ */
+package model;
+
+/**
+ * The kinds of change a ConcentrationModel tells its observers about.
+ * Each event still knows the action string older Observer implementations
+ * were passed, so they can be bridged.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public enum BoardEvent {
+
+    /** a new board was created, the cell is the board dimension */
+    CREATE(ConcentrationModel.CREATE),
+    /** a card was turned face up, or face down after a mismatch */
+    NOT_MATCHED(ConcentrationModel.NOTMATCHED),
+    /** a card was matched and stays face up */
+    MATCHED(ConcentrationModel.MATCHED),
+    /** the game is over */
+    GAME_OVER(ConcentrationModel.GAMEOVER),
+    /** the connection to the server was lost */
+    DISCONNECTED(ConcentrationModel.DISCONNECTED),
+    /** the connection to the server was restored */
+    CONNECTED(ConcentrationModel.CONNECTED);
+
+    /** action string passed to Observer implementations */
+    private final String action;
+
+
+    /**
+     * Constructor.
+     *
+     * @param action    action string passed to Observer implementations
+     */
+    BoardEvent(String action) {
+        this.action = action;
+    }
+
+
+    /**
+     * Get action string passed to Observer implementations.
+     *
+     * @return the action
+     */
+    public String getAction() {
+        return action;
+    }
+}
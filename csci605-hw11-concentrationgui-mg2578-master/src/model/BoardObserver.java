@@ -0,0 +1,33 @@
+/*
+Homework 11 : Concentration GUI
+File Name : BoardObserver.java
+ */
+package model;
+
+/**
+ * Observes a ConcentrationModel through typed events.
+ * Replaces Observer's action strings with a BoardEvent and primitive
+ * payload, so observers dispatch with a switch on the event instead of
+ * comparing strings. Observer implementations keep working through
+ * ConcentrationModel.addObserver, which bridges them.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+@FunctionalInterface
+public interface BoardObserver {
+
+    /**
+     * Called by the model after every change.
+     *
+     * @param model     the model
+     * @param event     what changed
+     * @param cell      the card changed, as row * dimension + col; the
+     *                  board dimension for CREATE, 0 for events not about
+     *                  a card
+     * @param cardId    id of the card if it is face up, else -1
+     *
+     */
+    void onEvent(ConcentrationModel model, BoardEvent event, int cell,
+                 int cardId);
+}
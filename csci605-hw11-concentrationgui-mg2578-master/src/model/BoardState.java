@@ -0,0 +1,322 @@
+/*
+Homework 11 : Concentration GUI
+File Name : BoardState.java
+ */
+package model;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of the board.
+ * Each cell holds the id of its card, or UNKNOWN while the server has not
+ * revealed it yet, and two bits saying whether it is face up and whether
+ * it is matched. Card ids index the model's image table, so the board
+ * costs a few bytes per cell whatever its size. Ids are stored as shorts,
+ * so they go from 0 to Short.MAX_VALUE, which is room for more than
+ * 256 x 256 cards. Changes check their rows and columns, so a bad
+ * coordinate is rejected instead of landing on another cell.
+ * Every change returns a new snapshot and shares the arrays it did not
+ * touch with the old one, so readers on any thread can hold on to a
+ * snapshot without locking.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public final class BoardState {
+
+    /** card id of a cell that has not been revealed yet */
+    public static final short UNKNOWN = -1;
+
+    /** the board dimension */
+    private final int DIM;
+    /** card id of each cell, as row * DIM + col */
+    private final short[] cards;
+    /** one bit per cell, set if the card is face up */
+    private final long[] faceUp;
+    /** one bit per cell, set if the card is matched */
+    private final long[] matched;
+    /** number of moves made */
+    private final int numMoves;
+    /** number of card matches */
+    private final int matches;
+    /** true if game over */
+    private final boolean gameOver;
+
+
+    /**
+     * Constructor.
+     *
+     * @param DIM         board dimension
+     * @param cards       card id of each cell
+     * @param faceUp      face up bits
+     * @param matched     matched bits
+     * @param numMoves    number of moves made
+     * @param matches     number of card matches
+     * @param gameOver    true if game over
+     */
+    private BoardState(int DIM, short[] cards, long[] faceUp, long[] matched,
+                       int numMoves, int matches, boolean gameOver) {
+        this.DIM = DIM;
+        this.cards = cards;
+        this.faceUp = faceUp;
+        this.matched = matched;
+        this.numMoves = numMoves;
+        this.matches = matches;
+        this.gameOver = gameOver;
+    }
+
+
+    /**
+     * Creates a board with every card face down and unknown.
+     *
+     * @param boardDimension    board dimension
+     * @return the new board
+     *
+     */
+    public static BoardState empty(int boardDimension) {
+        int cells = boardDimension * boardDimension;
+        short[] cards = new short[cells];
+        Arrays.fill(cards, UNKNOWN);
+        int words = (cells + 63) >>> 6;
+        return new BoardState(boardDimension, cards, new long[words],
+                new long[words], 0, 0, false);
+    }
+
+
+    /**
+     * Creates a board from its parts, such as a snapshot received from
+     * the server. The arrays are copied.
+     *
+     * @param boardDimension    board dimension
+     * @param cards             card id of each cell, UNKNOWN if not
+     *                          revealed yet
+     * @param faceUp            face up bits, 64 cells to a word
+     * @param matched           matched bits, 64 cells to a word
+     * @param numMoves          number of moves made
+     * @param matches           number of card matches
+     * @param gameOver          true if game over
+     * @return the new board
+     * @throws IllegalArgumentException if an array does not fit the board
+     *
+     */
+    public static BoardState of(int boardDimension, short[] cards,
+                                long[] faceUp, long[] matched, int numMoves,
+                                int matches, boolean gameOver) {
+        int cells = boardDimension * boardDimension;
+        int words = (cells + 63) >>> 6;
+        if (cards.length != cells || faceUp.length != words
+                || matched.length != words) {
+            throw new IllegalArgumentException("board parts do not fit a "
+                    + boardDimension + " x " + boardDimension + " board");
+        }
+        return new BoardState(boardDimension, cards.clone(), faceUp.clone(),
+                matched.clone(), numMoves, matches, gameOver);
+    }
+
+
+    /**
+     * Get board dimension.
+     *
+     * @return board dimension
+     */
+    public int getDIM() {
+        return DIM;
+    }
+
+    /**
+     * Get number of moves made.
+     *
+     * @return number of moves
+     */
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    /**
+     * Get number of matches.
+     *
+     * @return matches
+     */
+    public int getMatches() {
+        return matches;
+    }
+
+    /**
+     * Gets gameover value.
+     *
+     * @return true, if game over. Else, false.
+     */
+    public boolean getGameOver() {
+        return gameOver;
+    }
+
+
+    /**
+     * Get the card id of a cell.
+     *
+     * @param row    row
+     * @param col    column
+     * @return card id, or UNKNOWN if not revealed yet
+     *
+     */
+    public short getCard(int row, int col) {
+        return cards[row * DIM + col];
+    }
+
+
+    /**
+     * Checks whether a card is face up.
+     *
+     * @param row    row
+     * @param col    column
+     * @return true if face up.
+     *
+     */
+    public boolean isFaceUp(int row, int col) {
+        return isSet(faceUp, row * DIM + col);
+    }
+
+
+    /**
+     * Checks whether a card is matched.
+     *
+     * @param row    row
+     * @param col    column
+     * @return true if matched.
+     *
+     */
+    public boolean isMatched(int row, int col) {
+        return isSet(matched, row * DIM + col);
+    }
+
+
+    /**
+     * Reveals a card, counting it as a move.
+     *
+     * @param row       row
+     * @param col       column
+     * @param cardId    id of the card, 0 to Short.MAX_VALUE
+     * @return the new board
+     * @throws IllegalArgumentException if the id does not fit in a short
+     *                                  or the card is off the board
+     *
+     */
+    public BoardState reveal(int row, int col, int cardId) {
+        if (cardId < 0 || cardId > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("card id out of range: "
+                    + cardId);
+        }
+        int cell = cell(row, col);
+        short[] newCards = cards;
+        if (cards[cell] != cardId) {
+            newCards = cards.clone();
+            newCards[cell] = (short) cardId;
+        }
+        return new BoardState(DIM, newCards, set(faceUp, cell, true), matched,
+                numMoves + 1, matches, gameOver);
+    }
+
+
+    /**
+     * Turns two cards face down after a mismatch.
+     *
+     * @param card1_row    row of first card
+     * @param card1_col    column of first card
+     * @param card2_row    row of second card
+     * @param card2_col    column of second card
+     * @return the new board
+     * @throws IllegalArgumentException if a card is off the board
+     *
+     */
+    public BoardState hide(int card1_row, int card1_col, int card2_row,
+                           int card2_col) {
+        long[] newFaceUp = set(faceUp, cell(card1_row, card1_col), false);
+        newFaceUp = set(newFaceUp, cell(card2_row, card2_col), false);
+        return new BoardState(DIM, cards, newFaceUp, matched, numMoves,
+                matches, gameOver);
+    }
+
+
+    /**
+     * Marks two cards as a match and leaves them face up.
+     *
+     * @param card1_row    row of first card
+     * @param card1_col    column of first card
+     * @param card2_row    row of second card
+     * @param card2_col    column of second card
+     * @return the new board
+     * @throws IllegalArgumentException if a card is off the board
+     *
+     */
+    public BoardState match(int card1_row, int card1_col, int card2_row,
+                            int card2_col) {
+        int cell1 = cell(card1_row, card1_col);
+        int cell2 = cell(card2_row, card2_col);
+        long[] newFaceUp = set(set(faceUp, cell1, true), cell2, true);
+        long[] newMatched = set(set(matched, cell1, true), cell2, true);
+        return new BoardState(DIM, cards, newFaceUp, newMatched, numMoves,
+                matches + 1, gameOver);
+    }
+
+
+    /**
+     * Marks the game as over.
+     *
+     * @return the new board
+     *
+     */
+    public BoardState endGame() {
+        return new BoardState(DIM, cards, faceUp, matched, numMoves, matches,
+                true);
+    }
+
+
+    /**
+     * Gets the index of a card, checking that it is on the board.
+     *
+     * @param row    row
+     * @param col    column
+     * @return the cell, as row * DIM + col
+     * @throws IllegalArgumentException if the card is off the board
+     *
+     */
+    private int cell(int row, int col) {
+        if (row < 0 || col < 0 || row >= DIM || col >= DIM) {
+            throw new IllegalArgumentException("card off the " + DIM + " x "
+                    + DIM + " board: " + row + " " + col);
+        }
+        return row * DIM + col;
+    }
+
+
+    /**
+     * Checks a bit.
+     *
+     * @param bits    the bits
+     * @param cell    the cell
+     * @return true if set.
+     *
+     */
+    private static boolean isSet(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+
+    /**
+     * Sets or clears a bit, copying the bits only if they change.
+     *
+     * @param bits     the bits
+     * @param cell     the cell
+     * @param value    new value of the bit
+     * @return bits with the change applied
+     *
+     */
+    private static long[] set(long[] bits, int cell, boolean value) {
+        if (isSet(bits, cell) == value) {
+            return bits;
+        }
+        long[] copy = bits.clone();
+        copy[cell >>> 6] ^= 1L << cell;
+        return copy;
+    }
+}
@@ -4,8 +4,8 @@ File Name : ConcentrationModel.java
  */
 package model;
 
-import java.io.File;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
@@ -24,31 +24,45 @@ public class ConcentrationModel {
     private int DIM;
     /** array to store all image file. */
     private String [] imageArray;
-    /** map to store all letter - image pairs */
-    private static Map<Character, String> map;
-    /** number of card mattches */
-    private int matches;
-    /** number of moves made */
-    private int numMoves;
-    /** flag to check if game over */
-    private boolean gameOver = false;
+    /** current board, replaced with a new snapshot on every change */
+    private volatile BoardState board;
+    /** true while connected to the server */
+    private volatile boolean connected = true;
+    /** sequence number of the last server change applied, 0 if none */
+    private volatile long sequence;
+    /** time the listener received the changes being applied, 0 if they
+     *  are applied as they arrive */
+    private long receivedAt;
     /** the observers of this model */
-    private static List<Observer<ConcentrationModel>> observers;
+    private final List<BoardObserver> observers =
+            new CopyOnWriteArrayList<>();
     /** if card match */
     public static final String MATCHED = "matched";
     /** if cards do not match */
     public static final String NOTMATCHED = "not_matched";
     /** create initial board */
     public static final String CREATE = "create_board";
+    /** game over */
+    public static final String GAMEOVER = "game_over";
+    /** connection to the server lost */
+    public static final String DISCONNECTED = "disconnected";
+    /** connection to the server restored */
+    public static final String CONNECTED = "connected";
     /** face down card value */
     private static final String DEFAULT_IMAGE = "pokeball.png";
+    /** letter of the first card, ids count up from it */
+    private static final char FIRST_CARD = 'A';
+    /** number of letters used in card names */
+    private static final int LETTERS = 26;
 
 
     /**
      * Constructor.
      *
      */
-    public ConcentrationModel() {}
+    public ConcentrationModel() {
+        this.board = BoardState.empty(0);
+    }
 
 
     /**
@@ -58,6 +72,7 @@ public class ConcentrationModel {
      */
     public ConcentrationModel(int boardDimension) {
         this.DIM = boardDimension;
+        this.board = BoardState.empty(boardDimension);
     }
 
 
@@ -67,7 +82,7 @@ public class ConcentrationModel {
      * @return matches
      */
     public int getMatches() {
-        return matches;
+        return board.getMatches();
     }
 
     /**
@@ -76,7 +91,35 @@ public class ConcentrationModel {
      * @return number of moves
      */
     public int getNumMoves() {
-        return numMoves;
+        return board.getNumMoves();
+    }
+
+
+    /**
+     * Get a snapshot of the board.
+     * The snapshot never changes, so it can be read from any thread.
+     *
+     * @return the current board
+     */
+    public BoardState getBoard() {
+        return board;
+    }
+
+
+    /**
+     * Get image associated with a card id.
+     * When there are more pairs than images, images are reused and told
+     * apart by their tint.
+     *
+     * @param cardId    id of the card
+     * @return image name, or the face down image if the id is unknown
+     * @see ImageCatalog#getTint(int)
+     */
+    public String getImage(int cardId) {
+        if (cardId < 0) {
+            return DEFAULT_IMAGE;
+        }
+        return ImageCatalog.imageFor(cardId);
     }
 
 
@@ -90,6 +133,29 @@ public class ConcentrationModel {
     }
 
 
+    /**
+     * Get names of the face up card images used on this board.
+     *
+     * @return image names, empty if images have not been loaded
+     */
+    public List<String> getImageNames() {
+        if (imageArray == null) {
+            return List.of();
+        }
+        return List.of(imageArray);
+    }
+
+
+    /**
+     * Get face down card image.
+     *
+     * @return face down image name
+     */
+    public static String getDefaultImage() {
+        return DEFAULT_IMAGE;
+    }
+
+
     /**
      * Get board dimension.
      *
@@ -102,10 +168,12 @@ public class ConcentrationModel {
 
     /**
      * Sets gameOver value.
+     * Notifies observers so they can show the final state.
      *
      */
     public void setGameOver() {
-        gameOver = true;
+        board = board.endGame();
+        notifyObservers(0, 0, BoardEvent.GAME_OVER);
     }
 
 
@@ -116,91 +184,244 @@ public class ConcentrationModel {
      *
      */
     public boolean getGameOver(){
-        return gameOver;
+        return board.getGameOver();
+    }
+
+
+    /**
+     * Sets whether the server can be reached.
+     * Notifies observers so they can stop taking moves meanwhile.
+     *
+     * @param isConnected    true if connected
+     *
+     */
+    public void setConnected(boolean isConnected) {
+        connected = isConnected;
+        notifyObservers(0, 0, isConnected ? BoardEvent.CONNECTED
+                : BoardEvent.DISCONNECTED);
+    }
+
+
+    /**
+     * Gets whether the server can be reached.
+     *
+     * @return true, if connected. Else, false.
+     *
+     */
+    public boolean isConnected() {
+        return connected;
     }
 
 
     /**
      * The view calls this method to add themselves as an observer of the model.
+     * The observer is bridged to the typed events and is passed their
+     * action strings.
      *
      * @param observer the observer
      *
      */
     public void addObserver(Observer<ConcentrationModel> observer) {
-        observers = new LinkedList<>();
-        observers.add(observer);
+        observers.add((model, event, cell, cardId) -> {
+            int boardDimension = model.getDIM();
+            if (event == BoardEvent.CREATE || boardDimension == 0) {
+                observer.update(model, cell, 0, event.getAction());
+            }
+            else {
+                observer.update(model, cell / boardDimension,
+                        cell % boardDimension, event.getAction());
+            }
+        });
+    }
 
+
+    /**
+     * Adds an observer of the typed events.
+     *
+     * @param observer the observer
+     *
+     */
+    public void addBoardObserver(BoardObserver observer) {
+        observers.add(observer);
     }
 
 
     /**
-     * When the model changes, the observers are notified via their update()
-     * method.
+     * When the model changes, the observers are notified via their
+     * onEvent() method.
      *
      * @param row       row
      * @param col       column
-     * @param action    action to be performed
+     * @param event     what changed
      *
      */
-    private void notifyObservers(int row, int col, String action) {
-        for (Observer<ConcentrationModel> obs: observers ) {
-            obs.update(this, row, col, action);
+    private void notifyObservers(int row, int col, BoardEvent event) {
+        int cell = event == BoardEvent.CREATE ? row : row * DIM + col;
+        int cardId = event == BoardEvent.NOT_MATCHED
+                || event == BoardEvent.MATCHED ? faceUpCard(row, col) : -1;
+        for (BoardObserver obs: observers ) {
+            obs.onEvent(this, event, cell, cardId);
         }
     }
 
 
+    /**
+     * Gets the card shown in a cell.
+     *
+     * @param row    row
+     * @param col    column
+     * @return id of the card if it is face up, else -1
+     *
+     */
+    private int faceUpCard(int row, int col) {
+        BoardState current = board;
+        return current.isFaceUp(row, col) ? current.getCard(row, col) : -1;
+    }
+
+
     /**
      * Creates initial board.
      *
      * @param boardDimension    board dimension
      */
     public void createBoard(int boardDimension) {
-        notifyObservers(boardDimension, 0, CREATE);
+        this.DIM = boardDimension;
+        sequence = 0;
+        board = BoardState.empty(boardDimension);
+        notifyObservers(boardDimension, 0, BoardEvent.CREATE);
     }
 
 
     /**
-     * Stores all image names in a list.
-     * Removes face down value of card from final list of images.
+     * Replaces the whole board with a snapshot taken elsewhere, such as
+     * another model this one mirrors.
+     * Observers see the board created again, then every face up card.
      *
-     * @param boardDimension    board dimension
+     * @param state    the snapshot
      *
      */
-    public void loadImagesInGrid(int boardDimension){
-        imageArray = new String[(boardDimension * boardDimension)/2];
-        File f = new File(System.getProperty("user.dir"));
-        List<String> allImages = new ArrayList<>();
-//        store all images from image directory into list.
-        List<String> faceUpCardImages = List.of(f.list());
-//        remove face-down card value from list.
-        for(String name : faceUpCardImages){
-            if(!name.equals(DEFAULT_IMAGE)){
-                allImages.add(name);
+    public void restore(BoardState state) {
+        int boardDimension = state.getDIM();
+        if (imageArray == null || boardDimension != DIM) {
+            loadImagesInGrid(boardDimension);
+        }
+        DIM = boardDimension;
+        board = state;
+        notifyObservers(boardDimension, 0, BoardEvent.CREATE);
+        for (int row = 0; row < boardDimension; row++) {
+            for (int col = 0; col < boardDimension; col++) {
+                if (state.isFaceUp(row, col)) {
+                    notifyObservers(row, col, state.isMatched(row, col)
+                            ? BoardEvent.MATCHED : BoardEvent.NOT_MATCHED);
+                }
             }
         }
-//        populate array with required images based on board dimension.
-        for(int j = 0; j< (boardDimension * boardDimension)/2; j++){
-            imageArray[j] = allImages.get(j);
+        if (state.getGameOver()) {
+            notifyObservers(0, 0, BoardEvent.GAME_OVER);
         }
-        letterImagePair(boardDimension);
     }
 
 
     /**
-     * Creates letter image association.
+     * Replaces the whole board with a snapshot sent by the server.
+     * Changes numbered up to the snapshot's sequence number are already
+     * part of it and are skipped if they arrive later.
      *
-     * @param boardDimension    board dimension
+     * @param state       the snapshot
+     * @param sequence    sequence number of the last change it holds
      *
      */
-    private void letterImagePair(int boardDimension) {
-        map = new HashMap<>();
-//        ASCII value for character 'A'.
-        int value = 65;
-        for (int i = 0; i < (boardDimension * boardDimension)/2; i++) {
+    public void restore(BoardState state, long sequence) {
+        this.sequence = sequence;
+        restore(state);
+    }
 
-            map.put((char) value, imageArray[i]);
-            value++;
+
+    /**
+     * Checks whether a numbered server change is new, and if it is, counts
+     * it as applied. Applying the same change twice, such as one sent
+     * again after a reconnect, is then a no-op.
+     *
+     * @param sequence    sequence number of the change
+     * @return true if the change has to be applied, false if it already was.
+     *
+     */
+    public boolean acceptChange(long sequence) {
+        if (sequence <= this.sequence) {
+            return false;
         }
+        this.sequence = sequence;
+        return true;
+    }
+
+
+    /**
+     * Get sequence number of the last server change applied.
+     *
+     * @return sequence number, 0 if none
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+
+    /**
+     * Sets when the listener received the changes applied next, for
+     * changes that waited in a queue before reaching the model.
+     * Only the thread applying the changes sets and reads it.
+     *
+     * @param receivedAt    System.nanoTime() at receipt, 0 once the
+     *                      queued changes are applied
+     *
+     */
+    public void setReceivedAt(long receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+
+    /**
+     * Get when the listener received the change being applied. Observers
+     * read it while they are notified.
+     *
+     * @return System.nanoTime() at receipt, 0 if the change is applied as
+     *         it arrives
+     */
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+
+
+    /**
+     * Applies a change made to another model this one mirrors.
+     * The snapshot already holds the change, observers are told about it
+     * as if it was made here.
+     *
+     * @param state    snapshot after the change
+     * @param event    what changed
+     * @param cell     the card changed, as row * dimension + col
+     *
+     */
+    public void applyChange(BoardState state, BoardEvent event, int cell) {
+        int boardDimension = state.getDIM();
+        int row = cell / boardDimension;
+        int col = cell % boardDimension;
+        cardImage = state.isFaceUp(row, col)
+                ? getImage(state.getCard(row, col)) : DEFAULT_IMAGE;
+        board = state;
+        notifyObservers(row, col, event);
+    }
+
+
+    /**
+     * Stores the image names used on the board and their letter - image
+     * pairs, both taken from the shared image catalog.
+     *
+     * @param boardDimension    board dimension
+     *
+     */
+    public void loadImagesInGrid(int boardDimension){
+        imageArray = ImageCatalog.imagesFor(boardDimension)
+                .toArray(new String[0]);
     }
 
 
@@ -212,16 +433,49 @@ public class ConcentrationModel {
      */
     public void serverRevealsCardGUI(String message){
         String[] messageArray = message.split(" ");
-        int row = Integer.parseInt(messageArray[1]);
-        int col = Integer.parseInt(messageArray[2]);
-        char cardCharacterString = messageArray[3].charAt(0);
-//        get image associated with the card letter.
-        if(map.containsKey(cardCharacterString)){
-            cardImage = map.get(cardCharacterString);
+        revealCard(Integer.parseInt(messageArray[1]),
+                Integer.parseInt(messageArray[2]), cardId(messageArray[3]));
+    }
+
+
+    /**
+     * Converts a card name sent by the server to a card id.
+     * Names are either numbers, used as the id, or letters counted
+     * A = 0 to Z = 25, then AA = 26, AB = 27 and so on.
+     *
+     * @param card    the card name
+     * @return the card id
+     *
+     */
+    public static int cardId(String card) {
+        if (Character.isDigit(card.charAt(0))) {
+            return Integer.parseInt(card);
         }
-        numMoves ++;
+        int id = 0;
+        for (int i = 0; i < card.length(); i++) {
+            id = id * LETTERS + (card.charAt(i) - FIRST_CARD + 1);
+        }
+        return id - 1;
+    }
+
+
+    /**
+     * Reveals a card and updates it with the image associated with its
+     * id.
+     *
+     * @param row       row
+     * @param col       column
+     * @param cardId    id of the card, 0 to Short.MAX_VALUE
+     * @throws IllegalArgumentException if the id is out of range or the
+     *                                  card is off the board
+     *
+     */
+    public void revealCard(int row, int col, int cardId){
+//        get image associated with the card id.
+        cardImage = getImage(cardId);
+        board = board.reveal(row, col, cardId);
 //        notify observers to update card value.
-        notifyObservers(row, col, NOTMATCHED);
+        notifyObservers(row, col, BoardEvent.NOT_MATCHED);
     }
 
 
@@ -233,36 +487,63 @@ public class ConcentrationModel {
      */
     public void hideCard(String message){
         String[] messageArray = message.split(" ");
-        int card1_row = Integer.parseInt(messageArray[1]);
-        int card1_col = Integer.parseInt(messageArray[2]);
-        int card2_row = Integer.parseInt(messageArray[3]);
-        int card2_col = Integer.parseInt(messageArray[4]);
+        hideCards(Integer.parseInt(messageArray[1]),
+                Integer.parseInt(messageArray[2]),
+                Integer.parseInt(messageArray[3]),
+                Integer.parseInt(messageArray[4]));
+    }
+
+
+    /**
+     * Hide cards if not a match.
+     *
+     * @param card1_row    row of first card
+     * @param card1_col    column of first card
+     * @param card2_row    row of second card
+     * @param card2_col    column of second card
+     * @throws IllegalArgumentException if a card is off the board
+     *
+     */
+    public void hideCards(int card1_row, int card1_col, int card2_row,
+                          int card2_col){
         cardImage = DEFAULT_IMAGE;
+        board = board.hide(card1_row, card1_col, card2_row, card2_col);
 //        notify observers to update card with face down card value.
-        notifyObservers(card1_row, card1_col, NOTMATCHED);
-        notifyObservers(card2_row, card2_col, NOTMATCHED);
+        notifyObservers(card1_row, card1_col, BoardEvent.NOT_MATCHED);
+        notifyObservers(card2_row, card2_col, BoardEvent.NOT_MATCHED);
     }
 
 
     /**
-     * Hide cards if not a match.
+     * Display cards on a match.
      *
      * @param message    input received from server
      *
      */
     public void displayCardOnMatch(String message){
         String[] messageArray = message.split(" ");
-        int card1_row = Integer.parseInt(messageArray[1]);
-        int card1_col = Integer.parseInt(messageArray[2]);
-        int card2_row = Integer.parseInt(messageArray[3]);
-        int card2_col = Integer.parseInt(messageArray[4]);
-        matches ++;
-//        notify observers to update card with face up card value.
-        notifyObservers(card1_row, card1_col, MATCHED);
-        notifyObservers(card2_row, card2_col, MATCHED);
+        matchCards(Integer.parseInt(messageArray[1]),
+                Integer.parseInt(messageArray[2]),
+                Integer.parseInt(messageArray[3]),
+                Integer.parseInt(messageArray[4]));
     }
-}
-
-
 
 
+    /**
+     * Display cards on a match.
+     *
+     * @param card1_row    row of first card
+     * @param card1_col    column of first card
+     * @param card2_row    row of second card
+     * @param card2_col    column of second card
+     * @throws IllegalArgumentException if a card is off the board
+     *
+     */
+    public void matchCards(int card1_row, int card1_col, int card2_row,
+                           int card2_col){
+        board = board.match(card1_row, card1_col, card2_row, card2_col);
+//        notify observers to update card with face up card value.
+        notifyObservers(card1_row, card1_col, BoardEvent.MATCHED);
+        notifyObservers(card2_row, card2_col, BoardEvent.MATCHED);
+    }
+}
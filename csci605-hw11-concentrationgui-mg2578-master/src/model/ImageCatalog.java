@@ -0,0 +1,149 @@
+/*
+Homework 11 : Concentration GUI
+File Name : ImageCatalog.java
+ */
+package model;
+
+import logging.Log;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The face up card images available to a game.
+ * The names are read once from the images.txt manifest next to the view's
+ * images on the classpath and kept for the life of the process. A card
+ * id maps to its image by arithmetic, so no pairing has to be built for
+ * any board size, and boards with more pairs than images reuse images
+ * with a tint.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public final class ImageCatalog {
+
+    /** classpath location of the manifest */
+    private static final String MANIFEST = "/view/images/images.txt";
+
+
+    /**
+     * Constructor.
+     * No instances, all state is shared.
+     *
+     */
+    private ImageCatalog() {}
+
+
+    /**
+     * Holds the image names, loaded on first use.
+     *
+     */
+    private static final class Names {
+        /** face up card image names, in manifest order */
+        private static final List<String> NAMES = load();
+    }
+
+
+    /**
+     * Get all face up card image names.
+     *
+     * @return image names, never empty
+     * @throws IllegalStateException if no images were found
+     */
+    public static List<String> getImageNames() {
+        List<String> names = Names.NAMES;
+        if (names.isEmpty()) {
+            throw new IllegalStateException("no card images found: "
+                    + MANIFEST + " is missing or empty and the working "
+                    + "directory has no PNG files");
+        }
+        return names;
+    }
+
+
+    /**
+     * Get the images used on a board of the given size.
+     *
+     * @param boardDimension    board dimension
+     * @return one image name per pair, or every image if there are more
+     *         pairs than images
+     *
+     */
+    public static List<String> imagesFor(int boardDimension) {
+        List<String> names = getImageNames();
+        int pairCount = (boardDimension * boardDimension) / 2;
+        return names.subList(0, Math.min(pairCount, names.size()));
+    }
+
+
+    /**
+     * Get the image of a card.
+     * Ids beyond the number of images wrap around and reuse them.
+     *
+     * @param cardId    id of the card
+     * @return image name
+     *
+     */
+    public static String imageFor(int cardId) {
+        List<String> names = getImageNames();
+        return names.get(cardId % names.size());
+    }
+
+
+    /**
+     * Get the tint of a card, telling apart cards that share an image.
+     * The first round of images is untinted, each later round gets its
+     * own tint.
+     *
+     * @param cardId    id of the card
+     * @return 0 for no tint, else the round of reuse
+     *
+     */
+    public static int getTint(int cardId) {
+        return cardId / getImageNames().size();
+    }
+
+
+    /**
+     * Reads the image names from the manifest.
+     * Without a manifest, falls back to the PNG files in the working
+     * directory, other than the face down image. Finding no names is
+     * reported by getImageNames, so every caller gets the same clear
+     * error rather than a failed class initialization.
+     *
+     * @return image names, empty if none were found
+     *
+     */
+    private static List<String> load() {
+        InputStream manifest = ImageCatalog.class.getResourceAsStream(MANIFEST);
+        List<String> names = new ArrayList<>();
+        if (manifest != null) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                    manifest, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty()) {
+                        names.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                Log.error("could not read " + MANIFEST + ": "
+                        + e.getMessage());
+            }
+        }
+        else {
+            String[] files = new File(System.getProperty("user.dir")).list();
+            if (files != null) {
+                Arrays.sort(files);
+                for (String name : files) {
+                    if (name.endsWith(".png")
+                            && !name.equals(ConcentrationModel.getDefaultImage())) {
+                        names.add(name);
+                    }
+                }
+            }
+        }
+        return List.copyOf(names);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+Homework 11 : Concentration GUI
+File Name : SessionReader.java
+ */
+package recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import static recording.SessionRecorder.*;
+
+/**
+ * Reads the records of a session recording in order.
+ * The file is read through a memory mapping a region at a time, so files
+ * with millions of records are read without copying them into the heap.
+ * Reading stops at the end of the file or at the first record that was
+ * never finished.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class SessionReader implements AutoCloseable {
+
+    /** bytes mapped at a time */
+    private static final int REGION = 64 * 1024 * 1024;
+
+    /** the file */
+    private final RandomAccessFile file;
+    /** channel of the file */
+    private final FileChannel channel;
+    /** size of the file */
+    private final long size;
+    /** mapped part of the file being read */
+    private MappedByteBuffer window;
+    /** file position of the start of the window */
+    private long windowStart;
+    /** time the recording started, epoch millis */
+    private final long startMillis;
+    /** time of the current record, nanos since recording started */
+    private long timestamp;
+    /** direction of the current record */
+    private byte direction;
+    /** the current message */
+    private byte[] line = new byte[256];
+    /** length of the current message */
+    private int length;
+
+
+    /**
+     * Constructor.
+     * Opens a recording and checks its header.
+     *
+     * @param path    the recording
+     * @throws IOException if the file cannot be read or is not a recording
+     */
+    public SessionReader(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "r");
+        this.channel = file.getChannel();
+        this.size = channel.size();
+        this.window = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(REGION, size));
+        if (size < FILE_HEADER || window.getInt() != MAGIC
+                || window.getInt() != VERSION) {
+            file.close();
+            throw new IOException(path + " is not a session recording");
+        }
+        this.startMillis = window.getLong();
+    }
+
+
+    /**
+     * Moves to the next record.
+     *
+     * @return false at the end of the recording, else true.
+     * @throws IOException if the file cannot be read
+     *
+     */
+    public boolean next() throws IOException {
+        if (!ensure(RECORD_HEADER)) {
+            return false;
+        }
+        int start = window.position();
+        byte nextDirection = window.get(start + DIRECTION_OFFSET);
+        if (nextDirection == 0) {
+            return false;
+        }
+        int nextLength = window.getShort(start + DIRECTION_OFFSET + 1) & MAX_LENGTH;
+        if (!ensure(RECORD_HEADER + nextLength)) {
+            return false;
+        }
+        start = window.position();
+        timestamp = window.getLong(start);
+        direction = nextDirection;
+        length = nextLength;
+        if (line.length < length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        window.get(start + RECORD_HEADER, line, 0, length);
+        window.position(start + RECORD_HEADER + length);
+        return true;
+    }
+
+
+    /**
+     * Get time the recording started.
+     *
+     * @return start time, epoch millis
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+
+    /**
+     * Get time of the current record.
+     *
+     * @return nanos since the recording started
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+
+    /**
+     * Get direction of the current record.
+     *
+     * @return INBOUND or OUTBOUND
+     */
+    public byte getDirection() {
+        return direction;
+    }
+
+
+    /**
+     * Get length of the current message.
+     *
+     * @return message length
+     */
+    public int getLength() {
+        return length;
+    }
+
+
+    /**
+     * Copies the current message.
+     *
+     * @param destination    array to copy to
+     * @param offset         where to copy it
+     *
+     */
+    public void copyLine(byte[] destination, int offset) {
+        System.arraycopy(line, 0, destination, offset, length);
+    }
+
+
+    /**
+     * Gets the current message as a String.
+     *
+     * @return the current message
+     *
+     */
+    public String getLine() {
+        return new String(line, 0, length, StandardCharsets.US_ASCII);
+    }
+
+
+    /**
+     * Closes the recording.
+     *
+     * @throws IOException if closing the file fails
+     *
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+
+    /**
+     * Makes sure the next bytes of the file are in the window, mapping
+     * a new window from the current position if they are not.
+     *
+     * @param bytes    number of bytes needed
+     * @return false if the file ends first, else true.
+     * @throws IOException if the file cannot be mapped
+     *
+     */
+    private boolean ensure(int bytes) throws IOException {
+        if (window.remaining() >= bytes) {
+            return true;
+        }
+        long position = windowStart + window.position();
+        if (size - position < bytes) {
+            return false;
+        }
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                Math.min(Math.max(REGION, bytes), size - position));
+        return true;
+    }
+}
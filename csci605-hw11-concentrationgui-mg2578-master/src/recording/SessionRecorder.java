@@ -0,0 +1,146 @@
+/*
+Homework 11 : Concentration GUI
+File Name : SessionRecorder.java
+ */
+package recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Records every protocol message of a session to an append-only binary
+ * file, for replaying later with SessionReplay.
+ * The file is written through a memory mapping that is extended a region
+ * at a time, so recording a message is a few stores and never a system
+ * call. Each record holds the time since recording started, the direction
+ * and the message line without its terminator. The direction is written
+ * last, so if the process dies mid-record the reader stops before it.
+ *
+ * File layout: magic, version, start time (epoch millis), then records of
+ * time (nanos, long), direction (byte), length (unsigned short), bytes.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class SessionRecorder implements AutoCloseable {
+
+    /** direction of messages received from the server */
+    public static final byte INBOUND = 1;
+    /** direction of messages sent to the server */
+    public static final byte OUTBOUND = 2;
+    /** first int of every recording */
+    static final int MAGIC = 0x43524543;
+    /** version of the file layout */
+    static final int VERSION = 1;
+    /** size of the file header */
+    static final int FILE_HEADER = 16;
+    /** size of a record without its message */
+    static final int RECORD_HEADER = 11;
+    /** offset of the direction inside a record */
+    static final int DIRECTION_OFFSET = 8;
+    /** longest message kept, longer ones are cut */
+    static final int MAX_LENGTH = 0xFFFF;
+    /** bytes mapped at a time */
+    private static final int REGION = 16 * 1024 * 1024;
+
+    /** the file */
+    private final RandomAccessFile file;
+    /** channel of the file */
+    private final FileChannel channel;
+    /** mapped part of the file being written */
+    private MappedByteBuffer window;
+    /** file position of the start of the window */
+    private long windowStart;
+    /** time recording started, from System.nanoTime() */
+    private final long startNanos;
+    /** number of messages recorded */
+    private long count;
+    /** true once closed, later messages are ignored */
+    private boolean closed;
+
+
+    /**
+     * Constructor.
+     * Creates or replaces the file and writes its header.
+     *
+     * @param path    file to record to
+     * @throws IOException if the file cannot be created
+     */
+    public SessionRecorder(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "rw");
+        file.setLength(0);
+        this.channel = file.getChannel();
+        this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION);
+        this.startNanos = System.nanoTime();
+        window.putInt(MAGIC);
+        window.putInt(VERSION);
+        window.putLong(System.currentTimeMillis());
+    }
+
+
+    /**
+     * Records a message.
+     * Messages arriving after the recorder is closed are ignored.
+     *
+     * @param direction    INBOUND or OUTBOUND
+     * @param line         bytes holding the message
+     * @param offset       start of the message
+     * @param length       length of the message, without terminator
+     * @throws IOException if the file cannot be extended
+     *
+     */
+    public synchronized void record(byte direction, byte[] line, int offset,
+                                    int length) throws IOException {
+        if (closed) {
+            return;
+        }
+        long time = System.nanoTime() - startNanos;
+        length = Math.min(length, MAX_LENGTH);
+        int size = RECORD_HEADER + length;
+        if (window.remaining() < size) {
+//            map the next region right where this one ends, no gap.
+            windowStart += window.position();
+            window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart,
+                    Math.max(REGION, size));
+        }
+        int start = window.position();
+        window.putLong(start, time);
+        window.putShort(start + DIRECTION_OFFSET + 1, (short) length);
+        window.put(start + RECORD_HEADER, line, offset, length);
+        window.put(start + DIRECTION_OFFSET, direction);
+        window.position(start + size);
+        count++;
+    }
+
+
+    /**
+     * Get number of messages recorded.
+     *
+     * @return messages recorded
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+
+    /**
+     * Writes the recording out and cuts the file to the recorded length.
+     *
+     * @throws IOException if the file cannot be written
+     *
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        window.force();
+        long length = windowStart + window.position();
+        channel.truncate(length);
+        file.close();
+    }
+}
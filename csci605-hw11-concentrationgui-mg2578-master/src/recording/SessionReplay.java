@@ -0,0 +1,244 @@
+/*
+Homework 11 : Concentration GUI
+File Name : SessionReplay.java
+ */
+package recording;
+
+import controller.Listener;
+import controller.MessageDecoder;
+import controller.MessageHandler;
+import logging.Log;
+import metrics.MetricsRegistry;
+import model.ConcentrationModel;
+import java.io.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the messages received in a recorded session into a model.
+ * The recorded lines go through the same decoder and Listener as a live
+ * connection, so the model and any view observing it see exactly what
+ * they saw during the session. Lines are released at their recorded
+ * times, scaled by a speed factor, or as fast as they can be read.
+ *
+ * Usage: java recording.SessionReplay recording [speed|max]
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class SessionReplay {
+
+    /** the recording */
+    private final File recording;
+    /** speed factor, 1 is real time, 0 or less is as fast as possible */
+    private final double speed;
+
+
+    /**
+     * Constructor.
+     *
+     * @param recording    the recording
+     * @param speed        speed factor, 1 is real time, 0 or less is as
+     *                     fast as possible
+     */
+    public SessionReplay(File recording, double speed) {
+        this.recording = recording;
+        this.speed = speed;
+    }
+
+
+    /**
+     * Creates the board of the recorded session in the model.
+     * The recorded messages are replayed by the returned Listener, run it
+     * or start it once the observers are ready. Time is counted from when
+     * it first reads, not from now.
+     *
+     * @param model    the model
+     * @return listener replaying the session, not started
+     * @throws IOException if the recording cannot be read or has no board
+     *
+     */
+    public Listener begin(ConcentrationModel model) throws IOException {
+        MessageDecoder decoder = new MessageDecoder(new ReplayStream(
+                new SessionReader(recording), speed));
+        int[] dimension = new int[1];
+        boolean read = decoder.next(new MessageHandler() {
+            @Override
+            public void boardDimension(int boardDimension) {
+                dimension[0] = boardDimension;
+            }
+        });
+        if (!read || dimension[0] <= 0) {
+            decoder.close();
+            throw new IOException(recording + " does not start with a board");
+        }
+        model.loadImagesInGrid(dimension[0]);
+        model.createBoard(dimension[0]);
+        return new Listener(decoder, model);
+    }
+
+
+    /**
+     * Replays a recording without a GUI and reports how fast it went.
+     *
+     * @param args    command line arguments
+     * @throws IOException if the recording cannot be read
+     *
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java recording.SessionReplay "
+                    + "<recording> [speed|max]");
+            System.exit(1);
+        }
+        double speed = args.length < 2 || args[1].equals("max") ? 0
+                : Double.parseDouble(args[1]);
+        ConcentrationModel model = new ConcentrationModel();
+        Listener listener = new SessionReplay(new File(args[0]), speed)
+                .begin(model);
+        long before = MetricsRegistry.get().counter(MetricsRegistry.MESSAGES)
+                .get();
+        long start = System.nanoTime();
+        listener.run();
+        long elapsed = System.nanoTime() - start;
+        long messages = MetricsRegistry.get().counter(MetricsRegistry.MESSAGES)
+                .get() - before;
+        System.out.printf("Replayed %d messages in %.1f ms (%.0f msg/s)%n",
+                messages, elapsed / 1e6, messages * 1e9 / Math.max(1, elapsed));
+        System.out.println("Moves: " + model.getNumMoves() + ", matches: "
+                + model.getMatches() + ", game over: " + model.getGameOver());
+        if (Log.getDropped() > 0) {
+            System.out.println("Log lines dropped: " + Log.getDropped());
+        }
+        Log.flush();
+    }
+
+
+    /**
+     * Serves the received lines of a recording as a stream, each line
+     * only once it is due.
+     *
+     */
+    private static class ReplayStream extends InputStream {
+
+        /** reads the recording */
+        private final SessionReader reader;
+        /** speed factor, 0 or less is as fast as possible */
+        private final double speed;
+        /** current line with its terminator */
+        private byte[] line = new byte[256];
+        /** length of the current line */
+        private int lineLength;
+        /** bytes of the current line already served */
+        private int linePos;
+        /** recorded time of the current line */
+        private long lineTime;
+        /** number of lines loaded */
+        private long lines;
+        /** recorded time of the first line */
+        private long firstTime;
+        /** true once the replay clock started */
+        private boolean started;
+        /** time the replay clock started, from System.nanoTime() */
+        private long startNanos;
+
+
+        /**
+         * Constructor.
+         *
+         * @param reader    reads the recording
+         * @param speed     speed factor
+         */
+        ReplayStream(SessionReader reader, double speed) {
+            this.reader = reader;
+            this.speed = speed;
+        }
+
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+
+        /**
+         * Serves as many due lines as fit, waiting only when nothing has
+         * been served yet. The first line, the board, is never delayed;
+         * the clock starts when the line after it is first waited for.
+         *
+         */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = 0;
+            while (n < len) {
+                if (linePos == lineLength && !load()) {
+                    break;
+                }
+                if (lines > 1) {
+                    if (!started) {
+                        if (n > 0) {
+                            break;
+                        }
+                        started = true;
+                        startNanos = System.nanoTime();
+                    }
+                    long wait = speed <= 0 ? 0 : startNanos
+                            + (long) ((lineTime - firstTime) / speed)
+                            - System.nanoTime();
+                    if (wait > 0) {
+                        if (n > 0) {
+                            break;
+                        }
+                        LockSupport.parkNanos(wait);
+                        if (Thread.interrupted()) {
+                            throw new InterruptedIOException();
+                        }
+                        continue;
+                    }
+                }
+                int copied = Math.min(len - n, lineLength - linePos);
+                System.arraycopy(line, linePos, b, off + n, copied);
+                linePos += copied;
+                n += copied;
+            }
+            return n == 0 && len > 0 ? -1 : n;
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+
+        /**
+         * Loads the next received line.
+         *
+         * @return false at the end of the recording, else true.
+         * @throws IOException if the recording cannot be read
+         *
+         */
+        private boolean load() throws IOException {
+            while (reader.next()) {
+                if (reader.getDirection() != SessionRecorder.INBOUND) {
+                    continue;
+                }
+                int length = reader.getLength();
+                if (line.length < length + 1) {
+                    line = new byte[length + 1];
+                }
+                reader.copyLine(line, 0);
+                line[length] = '\n';
+                lineLength = length + 1;
+                linePos = 0;
+                lineTime = reader.getTimestamp();
+                if (lines == 0) {
+                    firstTime = lineTime;
+                }
+                lines++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
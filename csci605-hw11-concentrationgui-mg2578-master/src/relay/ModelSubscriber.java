@@ -0,0 +1,45 @@
+/*
+Homework 11 : Concentration GUI
+File Name : ModelSubscriber.java
+ */
+package relay;
+
+import model.BoardEvent;
+import model.BoardState;
+import model.ConcentrationModel;
+
+/**
+ * Mirrors the relayed board into a local model, so any view observing
+ * that model follows the game without a connection of its own.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class ModelSubscriber implements Subscriber {
+
+    /** the local model */
+    private final ConcentrationModel model;
+
+
+    /**
+     * Constructor.
+     *
+     * @param model    the local model
+     */
+    public ModelSubscriber(ConcentrationModel model) {
+        this.model = model;
+    }
+
+
+    @Override
+    public void onSnapshot(BoardState board) {
+        model.restore(board);
+    }
+
+
+    @Override
+    public void onDelta(BoardState board, BoardEvent event, int cell,
+                        int cardId) {
+        model.applyChange(board, event, cell);
+    }
+}
@@ -0,0 +1,451 @@
+/*
+Homework 11 : Concentration GUI
+File Name : SpectatorRelay.java
+ */
+package relay;
+
+import controller.ConcentrationController;
+import logging.Log;
+import model.BoardEvent;
+import model.BoardObserver;
+import model.BoardState;
+import model.ConcentrationModel;
+import server.LocalConcentrationServer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fans the changes of one model out to many subscribers.
+ * The relay observes the model fed by the single upstream connection and
+ * hands every change to each subscriber's own bounded queue. A few
+ * dispatcher threads drain the queues, a batch at a time, so thousands of
+ * subscribers share them. When a subscriber's queue is full its backlog
+ * is thrown away and it is sent the current board instead, which the
+ * boards being immutable snapshots makes free; a slow subscriber never
+ * holds up the upstream connection or the other subscribers.
+ *
+ * Usage: java relay.SpectatorRelay [spectators] [threads] [dimension]
+ * runs a game against a local server and reports on the fan-out.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class SpectatorRelay implements BoardObserver, AutoCloseable {
+
+    /** changes a subscriber may fall behind before it gets a snapshot */
+    public static final int DEFAULT_CAPACITY = 64;
+    /** changes delivered to one subscriber before its thread moves on */
+    private static final int BATCH = 16;
+
+    /** drains the subscriber queues */
+    private final ExecutorService dispatchers;
+    /** changes each subscriber may fall behind */
+    private final int capacity;
+    /** the subscribers */
+    private final List<Subscription> subscriptions =
+            new CopyOnWriteArrayList<>();
+    /** the most recent change, its board is the current snapshot */
+    private volatile Change latest;
+    /** changes relayed, counted once every subscriber has been offered
+     *  the change, only written by the upstream thread */
+    private final AtomicLong changes = new AtomicLong();
+    /** changes delivered to subscribers */
+    private final AtomicLong deltas = new AtomicLong();
+    /** snapshots delivered to subscribers */
+    private final AtomicLong snapshots = new AtomicLong();
+    /** times a subscriber fell behind and lost its backlog */
+    private final AtomicLong overflows = new AtomicLong();
+
+
+    /**
+     * Constructor.
+     *
+     * @param threads     number of dispatcher threads
+     * @param capacity    changes each subscriber may fall behind
+     */
+    public SpectatorRelay(int threads, int capacity) {
+        this.capacity = capacity;
+        this.dispatchers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "relay-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * Adds a subscriber. It is sent the current board first.
+     *
+     * @param subscriber    the subscriber
+     *
+     */
+    public void subscribe(Subscriber subscriber) {
+        Subscription subscription = new Subscription(subscriber);
+        subscriptions.add(subscription);
+        subscription.needsSnapshot = true;
+        subscription.schedule();
+    }
+
+
+    /**
+     * Removes a subscriber. Calls already under way may still finish.
+     *
+     * @param subscriber    the subscriber
+     *
+     */
+    public void unsubscribe(Subscriber subscriber) {
+        subscriptions.removeIf(s -> s.subscriber == subscriber);
+    }
+
+
+    /**
+     * Queues a change of the upstream model for every subscriber.
+     * A new board is sent to everyone as a snapshot.
+     *
+     * @param model     the upstream model
+     * @param event     what changed
+     * @param cell      the card changed
+     * @param cardId    id of the card if it is face up, else -1
+     *
+     */
+    @Override
+    public void onEvent(ConcentrationModel model, BoardEvent event, int cell,
+                        int cardId) {
+        Change change = new Change(changes.get() + 1, model.getBoard(),
+                event, cell, cardId);
+        latest = change;
+        boolean newBoard = event == BoardEvent.CREATE;
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(change, newBoard);
+        }
+        changes.set(change.sequence);
+    }
+
+
+    /**
+     * Checks whether every change relayed so far has been delivered.
+     * A subscription is only idle once its queue is empty, it owes no
+     * snapshot and no dispatcher is delivering to it; the flag alone is
+     * cleared just before the queue is checked a last time.
+     *
+     * @return true if no change is being offered and no subscriber has
+     *         anything waiting.
+     *
+     */
+    public boolean isIdle() {
+        Change last = latest;
+        if (last != null && changes.get() != last.sequence) {
+            return false;
+        }
+        for (Subscription subscription : subscriptions) {
+            if (subscription.scheduled.get() || subscription.needsSnapshot
+                    || !subscription.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Get number of changes relayed.
+     *
+     * @return changes relayed
+     */
+    public long getChanges() {
+        return changes.get();
+    }
+
+
+    /**
+     * Get number of changes delivered.
+     *
+     * @return changes delivered
+     */
+    public long getDeltas() {
+        return deltas.get();
+    }
+
+
+    /**
+     * Get number of snapshots delivered.
+     *
+     * @return snapshots delivered
+     */
+    public long getSnapshots() {
+        return snapshots.get();
+    }
+
+
+    /**
+     * Get number of times a subscriber fell behind.
+     *
+     * @return overflows
+     */
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+
+    /**
+     * Stops the dispatcher threads.
+     *
+     */
+    @Override
+    public void close() {
+        dispatchers.shutdownNow();
+    }
+
+
+    /**
+     * The main method.
+     * Plays random moves against a local server and reports how the
+     * changes reached the spectators, a few of which are slow.
+     *
+     * @param args    command line arguments
+     * @throws Exception if the game cannot be played
+     *
+     */
+    public static void main(String[] args) throws Exception {
+        int spectators = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int dimension = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        Log.setLevel(Log.Level.OFF);
+        ConcentrationModel model = new ConcentrationModel();
+        try (LocalConcentrationServer server = new LocalConcentrationServer(
+                0, dimension, 1, 1);
+             SpectatorRelay relay = new SpectatorRelay(threads,
+                     DEFAULT_CAPACITY)) {
+            model.addBoardObserver(relay);
+            CountingSubscriber[] subscribers =
+                    new CountingSubscriber[spectators];
+            for (int i = 0; i < spectators; i++) {
+//                one in a hundred spectators lags behind.
+                subscribers[i] = new CountingSubscriber(i % 100 == 0);
+                relay.subscribe(subscribers[i]);
+            }
+            ConcentrationController controller = new ConcentrationController(
+                    "localhost", server.getPort(), model);
+            long start = System.nanoTime();
+            controller.begin();
+            Random random = new Random(1);
+            while (!model.getGameOver()) {
+                BoardState board = model.getBoard();
+                int cell = random.nextInt(dimension * dimension);
+                if (!board.isFaceUp(cell / dimension, cell % dimension)) {
+                    controller.sendToServer(cell / dimension,
+                            cell % dimension);
+                    Thread.sleep(1);
+                }
+            }
+//            the game over change may still be on its way to the relay.
+            while (relay.latest == null
+                    || relay.latest.board != model.getBoard()
+                    || !relay.isIdle()) {
+                Thread.sleep(1);
+            }
+            long elapsed = System.nanoTime() - start;
+            int current = 0;
+            for (CountingSubscriber subscriber : subscribers) {
+                if (subscriber.board == model.getBoard()) {
+                    current++;
+                }
+            }
+            controller.close();
+            System.out.printf("%d changes to %d spectators on %d threads in "
+                            + "%.1f ms%n", relay.getChanges(), spectators,
+                    threads, elapsed / 1e6);
+            System.out.println("Deltas: " + relay.getDeltas()
+                    + ", snapshots: " + relay.getSnapshots()
+                    + ", overflows: " + relay.getOverflows()
+                    + ", spectators on the final board: " + current);
+        }
+    }
+
+
+    /**
+     * One change of the upstream model.
+     *
+     */
+    private static class Change {
+
+        /** number of the change, counting up from 1 */
+        final long sequence;
+        /** the board after the change */
+        final BoardState board;
+        /** what changed */
+        final BoardEvent event;
+        /** the card changed */
+        final int cell;
+        /** id of the card if it is face up, else -1 */
+        final int cardId;
+
+
+        /**
+         * Constructor.
+         *
+         * @param sequence    number of the change
+         * @param board       the board after the change
+         * @param event       what changed
+         * @param cell        the card changed
+         * @param cardId      id of the card if it is face up, else -1
+         */
+        Change(long sequence, BoardState board, BoardEvent event, int cell,
+               int cardId) {
+            this.sequence = sequence;
+            this.board = board;
+            this.event = event;
+            this.cell = cell;
+            this.cardId = cardId;
+        }
+    }
+
+
+    /**
+     * A subscriber with its queue. At most one dispatcher thread drains
+     * it at a time.
+     *
+     */
+    private class Subscription implements Runnable {
+
+        /** the subscriber */
+        final Subscriber subscriber;
+        /** changes not delivered yet */
+        final BlockingQueue<Change> queue;
+        /** true while queued on or running in a dispatcher thread */
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        /** true if the next delivery must be a snapshot */
+        volatile boolean needsSnapshot;
+        /** number of the last change delivered, older ones are skipped */
+        long delivered;
+
+
+        /**
+         * Constructor.
+         *
+         * @param subscriber    the subscriber
+         */
+        Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+
+        /**
+         * Queues a change, or replaces the backlog with a snapshot if
+         * the queue is full or the change is a new board.
+         *
+         * @param change      the change
+         * @param snapshot    true to send a snapshot instead
+         *
+         */
+        void offer(Change change, boolean snapshot) {
+            if (snapshot || !queue.offer(change)) {
+                if (!snapshot) {
+                    overflows.incrementAndGet();
+                }
+//                the snapshot taken on delivery covers the lost backlog.
+                queue.clear();
+                needsSnapshot = true;
+            }
+            schedule();
+        }
+
+
+        /**
+         * Queues this subscription on a dispatcher thread unless it is
+         * queued already.
+         *
+         */
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatchers.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+
+        /**
+         * Delivers a batch, then makes room for other subscribers.
+         *
+         */
+        @Override
+        public void run() {
+            try {
+                if (needsSnapshot) {
+                    needsSnapshot = false;
+                    Change snapshot = latest;
+                    if (snapshot != null && snapshot.sequence > delivered) {
+                        delivered = snapshot.sequence;
+                        subscriber.onSnapshot(snapshot.board);
+                        snapshots.incrementAndGet();
+                    }
+                }
+                Change change;
+                for (int i = 0; i < BATCH && (change = queue.poll()) != null;
+                     i++) {
+                    if (change.sequence > delivered) {
+                        delivered = change.sequence;
+                        subscriber.onDelta(change.board, change.event,
+                                change.cell, change.cardId);
+                        deltas.incrementAndGet();
+                    }
+                }
+            } catch (RuntimeException e) {
+                Log.error("spectator failed: " + e);
+            }
+            scheduled.set(false);
+//            changes may have arrived after the last poll.
+            if (needsSnapshot || !queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+
+    /**
+     * A spectator that only keeps the last board it was sent, lagging
+     * on every change if it is slow.
+     *
+     */
+    private static class CountingSubscriber implements Subscriber {
+
+        /** true if every change takes a while */
+        private final boolean slow;
+        /** last board received */
+        volatile BoardState board;
+
+
+        /**
+         * Constructor.
+         *
+         * @param slow    true if every change takes a while
+         */
+        CountingSubscriber(boolean slow) {
+            this.slow = slow;
+        }
+
+
+        @Override
+        public void onSnapshot(BoardState snapshot) {
+            board = snapshot;
+        }
+
+
+        @Override
+        public void onDelta(BoardState changed, BoardEvent event, int cell,
+                            int cardId) {
+            board = changed;
+            if (slow) {
+                LockSupport.parkNanos(2_000_000);
+            }
+        }
+    }
+}
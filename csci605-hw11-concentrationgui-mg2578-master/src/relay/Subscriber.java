@@ -0,0 +1,42 @@
+/*
+Homework 11 : Concentration GUI
+File Name : Subscriber.java
+ */
+package relay;
+
+import model.BoardEvent;
+import model.BoardState;
+
+/**
+ * Receives the changes of a board relayed by a SpectatorRelay.
+ * Calls for one subscriber never overlap and arrive in order, but may
+ * come from different dispatcher threads. They should return quickly,
+ * the dispatcher threads are shared by every subscriber.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public interface Subscriber {
+
+    /**
+     * Replaces everything seen so far with a whole board.
+     * Sent first, on a new board, and when the subscriber fell too far
+     * behind to be sent the changes it missed.
+     *
+     * @param board    the board
+     *
+     */
+    void onSnapshot(BoardState board);
+
+
+    /**
+     * Applies one change.
+     *
+     * @param board     the board after the change
+     * @param event     what changed
+     * @param cell      the card changed, as row * dimension + col
+     * @param cardId    id of the card if it is face up, else -1
+     *
+     */
+    void onDelta(BoardState board, BoardEvent event, int cell, int cardId);
+}
@@ -0,0 +1,214 @@
+/*
+Homework 11 : Concentration GUI
+File Name : ConcentrationGame.java
+ */
+package server;
+
+import sync.SnapshotCodec;
+import java.util.Arrays;
+import java.util.Random;
+import static common.ConcentrationProtocol.*;
+import static sync.SyncProtocol.*;
+
+/**
+ * The server side rules of one game.
+ * Holds the shuffled cards, answers REVEAL requests with CARD messages
+ * and settles every second card with MATCH or MISMATCH.
+ * Once a client asks for a snapshot, every message that changes the board
+ * carries a sequence number, so a client that reconnects can be sent the
+ * board as it is now instead of the whole game again.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class ConcentrationGame {
+
+    /** letter of the first card */
+    private static final char FIRST_CARD = 'A';
+    /** number of letters used in card names */
+    private static final int LETTERS = 26;
+
+    /** the board dimension */
+    private final int DIM;
+    /** pair of each cell, as row * DIM + col */
+    private final int[] cards;
+    /** name sent for each pair */
+    private final String[] names;
+    /** whether each card is face up */
+    private final boolean[] faceUp;
+    /** whether each card is matched */
+    private final boolean[] matched;
+    /** pair of each cell the client has seen, -1 if never revealed */
+    private final short[] shown;
+    /** cell revealed first this turn, -1 if none */
+    private int firstCell = -1;
+    /** number of pairs matched */
+    private int matches;
+    /** number of cards revealed */
+    private int numMoves;
+    /** sequence number of the last board change */
+    private long sequence;
+    /** true once a snapshot was sent, changes are sent as DELTAs then */
+    private boolean versioned;
+
+
+    /**
+     * Constructor.
+     * Shuffles the pairs over the board.
+     *
+     * @param boardDimension    board dimension, must be even
+     * @param random            source for shuffling
+     */
+    public ConcentrationGame(int boardDimension, Random random) {
+        int cells = boardDimension * boardDimension;
+        if (boardDimension <= 0 || cells % 2 != 0
+                || boardDimension > Short.MAX_VALUE / boardDimension) {
+            throw new IllegalArgumentException("unsupported board dimension: "
+                    + boardDimension);
+        }
+        this.DIM = boardDimension;
+        cards = new int[cells];
+        names = new String[cells / 2];
+        faceUp = new boolean[cells];
+        matched = new boolean[cells];
+        shown = new short[cells];
+        Arrays.fill(shown, (short) -1);
+        for (int pair = 0; pair < names.length; pair++) {
+            names[pair] = cardName(pair);
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            cards[cell] = cell / 2;
+        }
+        for (int cell = cells - 1; cell > 0; cell--) {
+            int other = random.nextInt(cell + 1);
+            int card = cards[cell];
+            cards[cell] = cards[other];
+            cards[other] = card;
+        }
+    }
+
+
+    /**
+     * Get board dimension.
+     *
+     * @return board dimension
+     */
+    public int getDIM() {
+        return DIM;
+    }
+
+
+    /**
+     * Checks whether every pair is matched.
+     *
+     * @return true, if game over. Else, false.
+     */
+    public synchronized boolean isGameOver() {
+        return matches == cards.length / 2;
+    }
+
+
+    /**
+     * Names a pair with letters, A to Z, then AA, AB and so on, so
+     * boards can have more than 26 pairs.
+     *
+     * @param pair    the pair
+     * @return the name sent in CARD messages
+     *
+     */
+    static String cardName(int pair) {
+        StringBuilder name = new StringBuilder();
+        for (int n = pair + 1; n > 0; n = (n - 1) / LETTERS) {
+            name.insert(0, (char) (FIRST_CARD + (n - 1) % LETTERS));
+        }
+        return name.toString();
+    }
+
+
+    /**
+     * Appends a SNAPSHOT of the board to the reply. Every board change
+     * after it is sent as a DELTA.
+     * Only cards the client has already seen are included.
+     *
+     * @param gameId    id the client can resume this game with
+     * @param reply     receives the message to send back
+     *
+     */
+    public synchronized void snapshot(String gameId, StringBuilder reply) {
+        versioned = true;
+        reply.append(SNAPSHOT).append(' ').append(gameId).append(' ')
+                .append(sequence).append(' ')
+                .append(SnapshotCodec.encode(DIM, shown, faceUp, matched,
+                        numMoves, matches, isGameOver()))
+                .append('\n');
+    }
+
+
+    /**
+     * Reveals a card and appends the server's answer to the reply, one
+     * message per line.
+     *
+     * @param row      row
+     * @param col      column
+     * @param reply    receives the messages to send back
+     *
+     */
+    public synchronized void reveal(int row, int col, StringBuilder reply) {
+        if (row < 0 || col < 0 || row >= DIM || col >= DIM) {
+            reply.append(ERROR).append(" out of bounds: ").append(row)
+                    .append(' ').append(col).append('\n');
+            return;
+        }
+        int cell = row * DIM + col;
+        if (faceUp[cell]) {
+            reply.append(ERROR).append(" card already revealed: ").append(row)
+                    .append(' ').append(col).append('\n');
+            return;
+        }
+        faceUp[cell] = true;
+        shown[cell] = (short) cards[cell];
+        numMoves++;
+        change(reply).append(CARD).append(' ').append(row).append(' ')
+                .append(col).append(' ').append(names[cards[cell]])
+                .append('\n');
+        if (firstCell < 0) {
+            firstCell = cell;
+            return;
+        }
+        int first = firstCell;
+        firstCell = -1;
+        boolean isMatch = cards[first] == cards[cell];
+        if (isMatch) {
+            matched[first] = true;
+            matched[cell] = true;
+            matches++;
+        }
+        else {
+            faceUp[first] = false;
+            faceUp[cell] = false;
+        }
+        change(reply).append(isMatch ? MATCH : MISMATCH).append(' ')
+                .append(first / DIM).append(' ').append(first % DIM)
+                .append(' ').append(row).append(' ').append(col).append('\n');
+        if (isGameOver()) {
+            change(reply).append(GAME_OVER).append('\n');
+        }
+    }
+
+
+    /**
+     * Counts a board change and starts its message with the DELTA prefix
+     * once a snapshot was sent.
+     *
+     * @param reply    receives the message
+     * @return the reply
+     *
+     */
+    private StringBuilder change(StringBuilder reply) {
+        sequence++;
+        if (versioned) {
+            reply.append(DELTA).append(' ').append(sequence).append(' ');
+        }
+        return reply;
+    }
+}
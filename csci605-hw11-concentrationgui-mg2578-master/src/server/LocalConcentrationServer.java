@@ -0,0 +1,483 @@
+/*
+Homework 11 : Concentration GUI
+File Name : LocalConcentrationServer.java
+ */
+package server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import static common.ConcentrationProtocol.*;
+import static sync.SyncProtocol.SYNC;
+
+/**
+ * An embeddable Concentration server for tests and benchmarks.
+ * Listens on the loopback interface and plays one ConcentrationGame per
+ * connection. Connections are spread over a few event loop threads, each
+ * serving all of its games through one NIO Selector, so many games run on
+ * a small, fixed number of threads.
+ * Clients that send SYNC get a snapshot and numbered changes, and their
+ * game is kept after they disconnect so they can resume it with
+ * SYNC and its id.
+ *
+ * Usage: java server.LocalConcentrationServer port dimension [threads]
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class LocalConcentrationServer implements AutoCloseable {
+
+    /** first word of a REVEAL message */
+    private static final String REVEAL_WORD =
+            REVEAL_MSG.substring(0, REVEAL_MSG.indexOf(' '));
+    /** most games kept for resuming, the least recently used go first */
+    private static final int MAX_SYNCED_GAMES = 10_000;
+
+    /** board dimension of every game */
+    private final int boardDimension;
+    /** accepts new connections */
+    private final ServerSocketChannel serverChannel;
+    /** loops serving the connections */
+    private final EventLoop[] loops;
+    /** thread accepting connections */
+    private final Thread acceptor;
+    /** source for shuffling boards */
+    private final Random random;
+    /** games that can be resumed, by id, least recently used first */
+    private final Map<String, ConcentrationGame> syncedGames =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, ConcentrationGame> eldest) {
+                    return size() > MAX_SYNCED_GAMES;
+                }
+            };
+    /** false once the server is closed */
+    private volatile boolean running = true;
+
+
+    /**
+     * Constructor.
+     * Binds to the loopback interface and starts serving.
+     *
+     * @param port              port to listen on, 0 for any free port
+     * @param boardDimension    board dimension of every game
+     * @param threads           number of event loop threads
+     * @param seed              seed for shuffling boards
+     * @throws IOException if the server cannot be started
+     */
+    public LocalConcentrationServer(int port, int boardDimension, int threads,
+                                    long seed) throws IOException {
+//        fail early on boards the game does not support.
+        new ConcentrationGame(boardDimension, new Random());
+        this.boardDimension = boardDimension;
+        this.random = new Random(seed);
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                port));
+        loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new EventLoop();
+            Thread thread = new Thread(loops[i], "server-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        acceptor = new Thread(this::acceptConnections, "server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+
+    /**
+     * The main method.
+     *
+     * @param args    command line arguments
+     * @throws IOException if the server cannot be started
+     * @throws InterruptedException if interrupted while serving
+     *
+     */
+    public static void main(String[] args) throws IOException,
+            InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java server.LocalConcentrationServer "
+                    + "<port number> <board dimension> [threads]");
+            System.exit(1);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        LocalConcentrationServer server = new LocalConcentrationServer(
+                Integer.parseInt(args[0]), Integer.parseInt(args[1]), threads,
+                System.nanoTime());
+        System.out.println("Serving on port " + server.getPort());
+        server.acceptor.join();
+    }
+
+
+    /**
+     * Get the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+
+    /**
+     * Stops accepting connections and closes every game.
+     *
+     * @throws IOException if closing fails
+     *
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+    }
+
+
+    /**
+     * Accepts connections and hands them to the event loops in turn.
+     *
+     */
+    private void acceptConnections() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                ConcentrationGame game;
+                synchronized (random) {
+                    game = new ConcentrationGame(boardDimension,
+                            new Random(random.nextLong()));
+                }
+                loops[next].register(new Connection(channel, game,
+                        syncedGames));
+                next = (next + 1) % loops.length;
+            } catch (IOException e) {
+                if (running) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * One thread serving many connections through a Selector.
+     *
+     */
+    private class EventLoop implements Runnable {
+
+        /** the selector */
+        private final Selector selector;
+        /** connections waiting to be registered with the selector */
+        private final Queue<Connection> newConnections =
+                new ConcurrentLinkedQueue<>();
+
+
+        /**
+         * Constructor
+         *
+         * @throws IOException if the selector cannot be opened
+         */
+        private EventLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+
+        /**
+         * Queues a connection for this loop.
+         *
+         * @param connection    the connection
+         *
+         */
+        private void register(Connection connection) {
+            newConnections.add(connection);
+            selector.wakeup();
+        }
+
+
+        /**
+         * The run method.
+         *
+         */
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    Connection connection;
+                    while ((connection = newConnections.poll()) != null) {
+                        connection.start(selector);
+                    }
+                    Iterator<SelectionKey> keys =
+                            selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        ((Connection) key.attachment()).handle(key);
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                ((Connection) key.attachment()).close();
+            }
+        }
+    }
+
+
+    /**
+     * One client connection playing one game.
+     *
+     */
+    private static class Connection {
+
+        /** the channel */
+        private final SocketChannel channel;
+        /** the game, replaced if the client resumes an earlier one */
+        private ConcentrationGame game;
+        /** games that can be resumed, shared by all connections */
+        private final Map<String, ConcentrationGame> syncedGames;
+        /** id of the game once the client asked for a snapshot */
+        private String gameId;
+        /** bytes read and not handled yet */
+        private final ByteBuffer input = ByteBuffer.allocate(1024);
+        /** bytes waiting to be written */
+        private ByteBuffer output = ByteBuffer.allocate(1024);
+        /** messages produced by a request */
+        private final StringBuilder reply = new StringBuilder();
+        /** the key of this connection */
+        private SelectionKey key;
+        /** true once the game is over and the replies are being flushed */
+        private boolean closing;
+
+
+        /**
+         * Constructor
+         *
+         * @param channel        the channel
+         * @param game           the game
+         * @param syncedGames    games that can be resumed
+         */
+        private Connection(SocketChannel channel, ConcentrationGame game,
+                           Map<String, ConcentrationGame> syncedGames) {
+            this.channel = channel;
+            this.game = game;
+            this.syncedGames = syncedGames;
+        }
+
+
+        /**
+         * Registers with the selector and sends the board dimension.
+         *
+         * @param selector    the selector
+         * @throws IOException if the channel cannot be registered
+         *
+         */
+        private void start(Selector selector) throws IOException {
+            channel.configureBlocking(false);
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+            reply.append(BOARD_DIM).append(' ').append(game.getDIM())
+                    .append('\n');
+            send();
+        }
+
+
+        /**
+         * Reads or writes, whichever the channel is ready for.
+         *
+         * @param key    the selected key
+         *
+         */
+        private void handle(SelectionKey key) {
+            try {
+                if (key.isReadable()) {
+                    read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    flush();
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+
+        /**
+         * Reads requests and answers every complete line.
+         *
+         * @throws IOException if reading fails
+         *
+         */
+        private void read() throws IOException {
+            if (channel.read(input) < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            int lineStart = input.position();
+            for (int i = lineStart; i < input.limit(); i++) {
+                if (input.get(i) == '\n') {
+                    handleLine(lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            input.position(lineStart);
+            input.compact();
+            if (!input.hasRemaining()) {
+//                a line longer than the buffer is not a valid request.
+                input.clear();
+            }
+            send();
+        }
+
+
+        /**
+         * Answers one request line.
+         *
+         * @param start    index of the first byte of the line
+         * @param end      index of the newline
+         *
+         */
+        private void handleLine(int start, int end) {
+            if (closing) {
+                return;
+            }
+            if (end > start && input.get(end - 1) == '\r') {
+                end--;
+            }
+            String line = new String(input.array(), start, end - start,
+                    StandardCharsets.US_ASCII);
+            String[] words = line.trim().split(" +");
+            if (words.length == 3 && words[0].equals(REVEAL_WORD)) {
+                try {
+                    game.reveal(Integer.parseInt(words[1]),
+                            Integer.parseInt(words[2]), reply);
+                } catch (NumberFormatException e) {
+                    reply.append(ERROR).append(" bad request: ").append(line)
+                            .append('\n');
+                }
+            }
+            else if (words.length <= 2 && words[0].equals(SYNC)) {
+                sync(words.length == 2 ? words[1] : null);
+            }
+            else {
+                reply.append(ERROR).append(" bad request: ").append(line)
+                        .append('\n');
+            }
+            closing = game.isGameOver();
+            if (closing && gameId != null) {
+                synchronized (syncedGames) {
+                    syncedGames.remove(gameId);
+                }
+            }
+        }
+
+
+        /**
+         * Answers a SYNC request with a snapshot of the game, first
+         * switching to the requested earlier game if it is still kept and
+         * has the same board dimension.
+         *
+         * @param resumeId    id of the game to resume, null for this one
+         *
+         */
+        private void sync(String resumeId) {
+            synchronized (syncedGames) {
+                ConcentrationGame saved = resumeId == null ? null
+                        : syncedGames.get(resumeId);
+                if (saved != null && saved.getDIM() == game.getDIM()) {
+                    game = saved;
+                    gameId = resumeId;
+                }
+                else if (gameId == null) {
+                    gameId = Long.toHexString(
+                            ThreadLocalRandom.current().nextLong());
+                    syncedGames.put(gameId, game);
+                }
+            }
+            game.snapshot(gameId, reply);
+        }
+
+
+        /**
+         * Queues the pending reply and writes as much as the channel takes.
+         *
+         * @throws IOException if writing fails
+         *
+         */
+        private void send() throws IOException {
+            if (reply.length() > 0) {
+                byte[] bytes = reply.toString()
+                        .getBytes(StandardCharsets.US_ASCII);
+                reply.setLength(0);
+                if (output.remaining() < bytes.length) {
+                    ByteBuffer larger = ByteBuffer.allocate(
+                            Math.max(output.capacity() * 2,
+                                    output.position() + bytes.length));
+                    output.flip();
+                    larger.put(output);
+                    output = larger;
+                }
+                output.put(bytes);
+            }
+            flush();
+        }
+
+
+        /**
+         * Writes buffered replies, waiting for OP_WRITE if the channel is
+         * full. Closes the connection once the game is over and everything
+         * has been written.
+         *
+         * @throws IOException if writing fails
+         *
+         */
+        private void flush() throws IOException {
+            output.flip();
+            channel.write(output);
+            boolean done = !output.hasRemaining();
+            output.compact();
+            if (done && closing) {
+                close();
+                return;
+            }
+            key.interestOps(done ? SelectionKey.OP_READ
+                    : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+
+
+        /**
+         * Closes the connection.
+         *
+         */
+        private void close() {
+            try {
+                if (key != null) {
+                    key.cancel();
+                }
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
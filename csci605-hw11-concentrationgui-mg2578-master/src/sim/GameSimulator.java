@@ -0,0 +1,119 @@
+/*
+Homework 11 : Concentration GUI
+File Name : GameSimulator.java
+ */
+package sim;
+
+import bot.BotStrategy;
+import java.util.Random;
+
+/**
+ * Plays complete games between a strategy and the game rules in memory,
+ * without a server, sockets or a GUI. The board is a pair of primitive
+ * arrays reused from game to game. Moves are counted as the model counts
+ * them, one per card revealed. Not thread safe, use one per thread.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class GameSimulator {
+
+    /** games longer than this many moves per card are given up */
+    private static final int MOVE_LIMIT_PER_CARD = 10_000;
+
+    /** the board dimension */
+    private final int DIM;
+    /** pair of each cell, as row * DIM + col */
+    private final int[] cards;
+    /** whether each card is matched */
+    private final boolean[] matched;
+    /** the strategy playing */
+    private final BotStrategy strategy;
+    /** source of shuffles and the strategy's random choices */
+    private final Random random;
+
+
+    /**
+     * Constructor.
+     *
+     * @param boardDimension    board dimension, must be even
+     * @param strategy          the strategy playing
+     * @param random            source of shuffles and random choices
+     */
+    public GameSimulator(int boardDimension, BotStrategy strategy,
+                         Random random) {
+        int cells = boardDimension * boardDimension;
+        if (boardDimension <= 0 || cells % 2 != 0) {
+            throw new IllegalArgumentException("unsupported board dimension: "
+                    + boardDimension);
+        }
+        this.DIM = boardDimension;
+        this.cards = new int[cells];
+        this.matched = new boolean[cells];
+        this.strategy = strategy;
+        this.random = random;
+    }
+
+
+    /**
+     * Shuffles a new board and plays it to the end.
+     *
+     * @return moves taken to match every pair, or -1 if the strategy
+     *         gave up or went past the move limit
+     *
+     */
+    public int play() {
+        int cells = cards.length;
+        for (int cell = 0; cell < cells; cell++) {
+            cards[cell] = cell / 2;
+            matched[cell] = false;
+        }
+        for (int cell = cells - 1; cell > 0; cell--) {
+            int other = random.nextInt(cell + 1);
+            int card = cards[cell];
+            cards[cell] = cards[other];
+            cards[other] = card;
+        }
+        strategy.reset(DIM, random);
+        int moves = 0;
+        int pairsLeft = cells / 2;
+        long limit = (long) MOVE_LIMIT_PER_CARD * cells;
+        while (pairsLeft > 0) {
+            int first = strategy.nextCell(-1);
+            if (!revealable(first, -1)) {
+                return -1;
+            }
+            strategy.cardRevealed(first, cards[first]);
+            int second = strategy.nextCell(first);
+            if (!revealable(second, first)) {
+                return -1;
+            }
+            strategy.cardRevealed(second, cards[second]);
+            moves += 2;
+            if (cards[first] == cards[second]) {
+                matched[first] = true;
+                matched[second] = true;
+                strategy.cardsMatched(first, second);
+                pairsLeft--;
+            }
+            if (moves > limit) {
+                return -1;
+            }
+        }
+        return moves;
+    }
+
+
+    /**
+     * Checks a card may be revealed, as the server would.
+     *
+     * @param cell         the cell
+     * @param firstCell    card already revealed this turn, -1 if none
+     * @return true if the card may be revealed.
+     *
+     */
+    private boolean revealable(int cell, int firstCell) {
+        return cell >= 0 && cell < cards.length && cell != firstCell
+                && !matched[cell];
+    }
+}
@@ -0,0 +1,151 @@
+/*
+Homework 11 : Concentration GUI
+File Name : MoveDistribution.java
+ */
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * Counts how many games were won in each number of moves. Filled by one
+ * thread, then merged with the distributions of other threads.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class MoveDistribution {
+
+    /** number of games won in each number of moves */
+    private long[] counts = new long[64];
+    /** games won */
+    private long games;
+    /** games given up */
+    private long failed;
+    /** total moves of the games won */
+    private long totalMoves;
+    /** total of the squared moves of the games won */
+    private double totalSquares;
+
+
+    /**
+     * Records a game.
+     *
+     * @param moves    moves taken to win, -1 if the game was given up
+     *
+     */
+    public void record(int moves) {
+        if (moves < 0) {
+            failed++;
+            return;
+        }
+        if (moves >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(moves + 1,
+                    counts.length * 2));
+        }
+        counts[moves]++;
+        games++;
+        totalMoves += moves;
+        totalSquares += (double) moves * moves;
+    }
+
+
+    /**
+     * Adds the games of another distribution to this one.
+     *
+     * @param other    the other distribution
+     * @return this distribution
+     *
+     */
+    public MoveDistribution merge(MoveDistribution other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int moves = 0; moves < other.counts.length; moves++) {
+            counts[moves] += other.counts[moves];
+        }
+        games += other.games;
+        failed += other.failed;
+        totalMoves += other.totalMoves;
+        totalSquares += other.totalSquares;
+        return this;
+    }
+
+
+    /**
+     * Get number of games won.
+     *
+     * @return games won
+     */
+    public long getGames() {
+        return games;
+    }
+
+
+    /**
+     * Get number of games given up.
+     *
+     * @return games given up
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+
+    /**
+     * Get mean moves to win.
+     *
+     * @return the mean, 0 without games
+     */
+    public double getMean() {
+        return games == 0 ? 0 : (double) totalMoves / games;
+    }
+
+
+    /**
+     * Get standard deviation of the moves to win.
+     *
+     * @return the standard deviation, 0 without games
+     */
+    public double getStandardDeviation() {
+        if (games == 0) {
+            return 0;
+        }
+        double mean = getMean();
+        return Math.sqrt(Math.max(0, totalSquares / games - mean * mean));
+    }
+
+
+    /**
+     * Gets the moves within which a fraction of the games were won.
+     *
+     * @param fraction    the fraction, 0 to 1
+     * @return the moves, 0 without games
+     *
+     */
+    public int percentile(double fraction) {
+        long rank = (long) Math.ceil(fraction * games);
+        long seen = 0;
+        for (int moves = 0; moves < counts.length; moves++) {
+            seen += counts[moves];
+            if (seen >= Math.max(1, rank)) {
+                return moves;
+            }
+        }
+        return 0;
+    }
+
+
+    /**
+     * Describes the distribution.
+     *
+     * @return mean, spread and percentiles of the moves to win
+     *
+     */
+    @Override
+    public String toString() {
+        return String.format("mean=%.1f sd=%.1f min=%d p50=%d p90=%d "
+                        + "p99=%d max=%d", getMean(), getStandardDeviation(),
+                percentile(0), percentile(0.50), percentile(0.90),
+                percentile(0.99), percentile(1));
+    }
+}
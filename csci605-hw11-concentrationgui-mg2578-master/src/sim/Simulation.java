@@ -0,0 +1,142 @@
+/*
+Homework 11 : Concentration GUI
+File Name : Simulation.java
+ */
+package sim;
+
+import bot.BotStrategy;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Compares strategies by playing many games of each in memory.
+ * The games are split into batches played in parallel on the common
+ * fork-join pool, each batch with its own simulator, strategy and random
+ * source, and the moves-to-win distributions of the batches are merged.
+ *
+ * Usage: java sim.Simulation [--games=N] [--dim=D]
+ *        [--strategies=random,perfect,limited[:N]] [--seed=S]
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class Simulation {
+
+    /** games per batch */
+    private static final int BATCH = 10_000;
+
+    /** number of games per strategy */
+    private long games = 1_000_000;
+    /** board dimension */
+    private int boardDimension = 4;
+    /** names of the strategies compared */
+    private String[] strategies = {"random", "perfect", "limited"};
+    /** seed of the first batch */
+    private long seed = 1;
+
+
+    /**
+     * The main method.
+     *
+     * @param args    command line arguments
+     *
+     */
+    public static void main(String[] args) {
+        Simulation simulation = new Simulation();
+        for (String arg : args) {
+            simulation.parseOption(arg);
+        }
+        simulation.run();
+    }
+
+
+    /**
+     * Plays the games of every strategy and prints their distributions.
+     *
+     */
+    public void run() {
+        System.out.printf("%d games per strategy on a %dx%d board, %d "
+                        + "threads%n", games, boardDimension, boardDimension,
+                Runtime.getRuntime().availableProcessors());
+        for (String name : strategies) {
+            long start = System.nanoTime();
+            MoveDistribution distribution = simulate(name);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-12s %s, given up %d, %.0f games/s%n", name,
+                    distribution, distribution.getFailed(),
+                    games / seconds);
+        }
+    }
+
+
+    /**
+     * Plays the games of one strategy in parallel batches.
+     * Checks that every game was counted exactly once.
+     *
+     * @param name    name of the strategy
+     * @return the moves to win of every game
+     *
+     */
+    public MoveDistribution simulate(String name) {
+//        fail on an unknown name before starting any batch.
+        BotStrategy.forName(name);
+        int batches = (int) ((games + BATCH - 1) / BATCH);
+//        merge changes the distribution it is called on, so each thread
+//        needs a container of its own, which collect gives it.
+        MoveDistribution distribution = IntStream.range(0, batches)
+                .parallel()
+                .mapToObj(batch -> playBatch(name, batch,
+                        Math.min(BATCH, games - (long) batch * BATCH)))
+                .collect(MoveDistribution::new, MoveDistribution::merge,
+                        MoveDistribution::merge);
+        long played = distribution.getGames() + distribution.getFailed();
+        if (played != games) {
+            throw new IllegalStateException("played " + played
+                    + " games instead of " + games);
+        }
+        return distribution;
+    }
+
+
+    /**
+     * Plays one batch of games.
+     *
+     * @param name     name of the strategy
+     * @param batch    number of the batch, picks its seed
+     * @param count    games in the batch
+     * @return the moves to win of the batch
+     *
+     */
+    private MoveDistribution playBatch(String name, int batch, long count) {
+        GameSimulator simulator = new GameSimulator(boardDimension,
+                BotStrategy.forName(name), new Random(seed + batch));
+        MoveDistribution distribution = new MoveDistribution();
+        for (long i = 0; i < count; i++) {
+            distribution.record(simulator.play());
+        }
+        return distribution;
+    }
+
+
+    /**
+     * Parses a --name=value option.
+     *
+     * @param arg    the option
+     *
+     */
+    private void parseOption(String arg) {
+        int equals = arg.indexOf('=');
+        if (!arg.startsWith("--") || equals < 0) {
+            throw new IllegalArgumentException("bad option: " + arg);
+        }
+        String value = arg.substring(equals + 1);
+        switch (arg.substring(2, equals)) {
+            case "games" -> games = Long.parseLong(value);
+            case "dim" -> boardDimension = Integer.parseInt(value);
+            case "strategies" -> strategies = value.split(",");
+            case "seed" -> seed = Long.parseLong(value);
+            default -> throw new IllegalArgumentException("bad option: "
+                    + arg);
+        }
+    }
+}
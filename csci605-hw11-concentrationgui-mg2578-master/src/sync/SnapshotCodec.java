@@ -0,0 +1,143 @@
+/*
+Homework 11 : Concentration GUI
+File Name : SnapshotCodec.java
+ */
+package sync;
+
+import model.BoardState;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Encodes the board sent in a SNAPSHOT message.
+ * The board is written as the dimension, the number of moves, the number
+ * of matches and the game over flag, then the card id of every cell as a
+ * short, -1 while unknown, then one bit per cell for face up and one for
+ * matched. The bytes are sent as Base64 so the message stays one line.
+ * Its size depends only on the board, never on how long the game has
+ * run, so catching up costs the same at any point of a game.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public final class SnapshotCodec {
+
+    /** bytes before the card ids */
+    private static final int HEADER_BYTES = 13;
+
+
+    /**
+     * Constructor.
+     * Only static methods.
+     *
+     */
+    private SnapshotCodec() {}
+
+
+    /**
+     * Encodes a board.
+     *
+     * @param boardDimension    board dimension
+     * @param cards             card id of each cell, -1 if unknown
+     * @param faceUp            whether each card is face up
+     * @param matched           whether each card is matched
+     * @param numMoves          number of moves made
+     * @param matches           number of matches
+     * @param gameOver          true if the game is over
+     * @return the board as Base64 text
+     *
+     */
+    public static String encode(int boardDimension, short[] cards,
+                                boolean[] faceUp, boolean[] matched,
+                                int numMoves, int matches, boolean gameOver) {
+        int cells = boardDimension * boardDimension;
+        int bitBytes = (cells + 7) >>> 3;
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + 2 * cells
+                + 2 * bitBytes);
+        out.putInt(boardDimension).putInt(numMoves).putInt(matches)
+                .put((byte) (gameOver ? 1 : 0));
+        for (int cell = 0; cell < cells; cell++) {
+            out.putShort(cards[cell]);
+        }
+        putBits(out, faceUp, cells);
+        putBits(out, matched, cells);
+        return Base64.getEncoder().withoutPadding()
+                .encodeToString(out.array());
+    }
+
+
+    /**
+     * Decodes a board.
+     *
+     * @param bytes    the board, already decoded from Base64
+     * @return the board
+     * @throws IllegalArgumentException if the bytes are not a board
+     *
+     */
+    public static BoardState decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            int boardDimension = in.getInt();
+            int numMoves = in.getInt();
+            int matches = in.getInt();
+            boolean gameOver = in.get() != 0;
+            if (boardDimension < 0
+                    || boardDimension > Short.MAX_VALUE / Math.max(1,
+                    boardDimension)) {
+                throw new IllegalArgumentException("bad snapshot dimension: "
+                        + boardDimension);
+            }
+            int cells = boardDimension * boardDimension;
+            short[] cards = new short[cells];
+            for (int cell = 0; cell < cells; cell++) {
+                cards[cell] = in.getShort();
+            }
+            long[] faceUp = getBits(in, cells);
+            long[] matched = getBits(in, cells);
+            return BoardState.of(boardDimension, cards, faceUp, matched,
+                    numMoves, matches, gameOver);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("truncated snapshot");
+        }
+    }
+
+
+    /**
+     * Writes one bit per cell, eight to a byte.
+     *
+     * @param out      receives the bits
+     * @param bits     the flag of each cell
+     * @param cells    number of cells
+     *
+     */
+    private static void putBits(ByteBuffer out, boolean[] bits, int cells) {
+        for (int first = 0; first < cells; first += 8) {
+            int value = 0;
+            for (int i = 0; i < 8 && first + i < cells; i++) {
+                if (bits[first + i]) {
+                    value |= 1 << i;
+                }
+            }
+            out.put((byte) value);
+        }
+    }
+
+
+    /**
+     * Reads one bit per cell into the long words BoardState keeps.
+     *
+     * @param in       the bytes
+     * @param cells    number of cells
+     * @return the bits, 64 cells to a word
+     *
+     */
+    private static long[] getBits(ByteBuffer in, int cells) {
+        long[] words = new long[(cells + 63) >>> 6];
+        for (int first = 0; first < cells; first += 8) {
+            long value = in.get() & 0xFF;
+            words[first >>> 6] |= value << (first & 63);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+Homework 11 : Concentration GUI
+File Name : SyncProtocol.java
+ */
+package sync;
+
+/**
+ * Messages of the snapshot and delta extension to the Concentration
+ * protocol, negotiated after BOARD_DIM.
+ * A client that wants it sends SYNC, or SYNC with the id of a game it
+ * played before to resume that game. A server that supports it answers
+ * with a SNAPSHOT of the whole board and from then on prefixes every
+ * message that changes the board with DELTA and a sequence number, one
+ * higher for each message. A server that does not answers with ERROR and
+ * the game goes on in the plain protocol.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public interface SyncProtocol {
+
+    /** request for a snapshot, sent by the client after BOARD_DIM */
+    String SYNC = "SYNC";
+    /** request for a snapshot of an earlier game, by game id */
+    String SYNC_MSG = SYNC + " %s";
+    /** the board, as game id, sequence number and SnapshotCodec bytes */
+    String SNAPSHOT = "SNAPSHOT";
+    /** format of a SNAPSHOT message */
+    String SNAPSHOT_MSG = SNAPSHOT + " %s %d %s";
+    /** prefix of a board change, followed by its sequence number */
+    String DELTA = "DELTA";
+    /** format of a DELTA message, the last part is the plain message */
+    String DELTA_MSG = DELTA + " %d %s";
+}
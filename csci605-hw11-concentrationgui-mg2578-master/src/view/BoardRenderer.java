@@ -0,0 +1,47 @@
+/*
+Homework 11 : Concentration GUI
+File Name : BoardRenderer.java
+ */
+package view;
+
+import javafx.scene.Node;
+
+/**
+ * Draws the cards of the board for ConcentrationGUI.
+ * The GUI observes the model and tells its renderer which cards changed;
+ * the renderer decides how the board is drawn and turns clicks into
+ * reveal requests. All methods run on the JavaFX Application thread.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+interface BoardRenderer {
+
+    /**
+     * Creates board with face-down value of cards.
+     *
+     * @param boardDimension    board dimension
+     * @return the node showing the board
+     *
+     */
+    Node makeBoard(int boardDimension);
+
+    /**
+     * Shows the current face of a card.
+     *
+     * @param row        row
+     * @param col        column
+     * @param cardId     id of the card to show, -1 for face down
+     * @param matched    true if the card is matched
+     *
+     */
+    void showCard(int row, int col, int cardId, boolean matched);
+
+    /**
+     * Disables or enables the whole board.
+     *
+     * @param disable    true to stop accepting clicks
+     *
+     */
+    void setDisable(boolean disable);
+}
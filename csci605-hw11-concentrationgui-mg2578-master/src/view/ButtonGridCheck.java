@@ -0,0 +1,105 @@
+/*
+Homework 11 : Concentration GUI
+File Name : ButtonGridCheck.java
+ */
+package view;
+
+import check.Checks;
+import check.GameTrace;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.layout.GridPane;
+import model.BoardEvent;
+import model.BoardState;
+import model.ConcentrationModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that the button grid keeps the same nodes however many cards
+ * are shown.
+ * Whole games are played on a model whose events are drawn by a
+ * ButtonGridRenderer, as the GUI does. After thousands of card updates
+ * the grid must still hold one button per cell, and the very buttons
+ * made with the board. It lives in the view package to reach the
+ * renderer, and needs JavaFX, though no window is opened.
+ *
+ * Usage: java view.ButtonGridCheck
+ * (with the source folder on the class path, for the card images, and
+ * JavaFX 17 controls and graphics; without a display, add the Monocle
+ * jar and -Dglass.platform=Monocle -Dmonocle.platform=Headless
+ * -Dprism.order=sw)
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public class ButtonGridCheck {
+
+    /** board dimension */
+    private static final int DIM = 6;
+    /** games drawn on the same grid */
+    private static final int GAMES = 50;
+
+
+    /**
+     * Runs the check on the JavaFX application thread.
+     *
+     * @param args    unused
+     * @throws InterruptedException if interrupted while waiting
+     *
+     */
+    public static void main(String[] args) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.startup(() -> {
+            try {
+                checkGrid();
+            } finally {
+                done.countDown();
+            }
+        });
+        Checks.check(done.await(60, TimeUnit.SECONDS),
+                "grid check finished");
+        Platform.exit();
+        Checks.exit();
+    }
+
+
+    /**
+     * Draws many games on one grid and checks its children.
+     *
+     */
+    private static void checkGrid() {
+        ConcentrationModel model = GameTrace.newModel(DIM);
+        ButtonGridRenderer renderer = new ButtonGridRenderer(model, null);
+        GridPane grid = (GridPane) renderer.makeBoard(DIM);
+        List<Node> buttons = new ArrayList<>(grid.getChildren());
+        int[] updates = new int[1];
+        model.addBoardObserver((board, event, cell, cardId) -> {
+            if (event == BoardEvent.MATCHED
+                    || event == BoardEvent.NOT_MATCHED) {
+                BoardState state = board.getBoard();
+                int row = cell / DIM;
+                int col = cell % DIM;
+                renderer.showCard(row, col, state.isFaceUp(row, col)
+                        ? state.getCard(row, col) : BoardState.UNKNOWN,
+                        state.isMatched(row, col));
+                updates[0]++;
+            }
+        });
+        Random random = new Random(605);
+        for (int game = 0; game < GAMES; game++) {
+            model.createBoard(DIM);
+            GameTrace.apply(GameTrace.play(DIM, random.nextLong()), model);
+        }
+        Checks.check(buttons.size() == DIM * DIM,
+                "new grid has " + buttons.size() + " buttons");
+        Checks.check(grid.getChildren().size() == DIM * DIM,
+                "grid has " + grid.getChildren().size() + " nodes after "
+                        + updates[0] + " card updates");
+        Checks.check(grid.getChildren().equals(buttons),
+                "grid still holds the buttons made with the board");
+    }
+}
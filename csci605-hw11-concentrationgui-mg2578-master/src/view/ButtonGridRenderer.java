@@ -0,0 +1,120 @@
+/*
+Homework 11 : Concentration GUI
+File Name : ButtonGridRenderer.java
+ */
+package view;
+
+import common.ConcentrationException;
+import controller.ConcentrationController;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.GridPane;
+import model.ConcentrationModel;
+import model.ImageCatalog;
+import java.io.IOException;
+
+/**
+ * Draws the board as a GridPane with one Button per card.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+class ButtonGridRenderer implements BoardRenderer {
+
+    /** the model */
+    private final ConcentrationModel model;
+    /** the controller */
+    private final ConcentrationController controller;
+    /** the gridpane to create buttons */
+    private GridPane gridPane;
+    /** card buttons, indexed by row and column */
+    private Button[][] cards;
+    /** image view shown on each card button, indexed by row and column */
+    private ImageView[][] cardImages;
+
+
+    /**
+     * Constructor
+     *
+     * @param model         the model
+     * @param controller    the controller
+     */
+    ButtonGridRenderer(ConcentrationModel model,
+                       ConcentrationController controller) {
+        this.model = model;
+        this.controller = controller;
+    }
+
+
+    /**
+     * Creates board with face-down value of cards.
+     * Sets button action on click cards.
+     *
+     * @param boardDimension    board dimension
+     * @return the grid
+     *
+     */
+    @Override
+    public Node makeBoard(int boardDimension) {
+        gridPane = new GridPane();
+        cards = new Button[boardDimension][boardDimension];
+        cardImages = new ImageView[boardDimension][boardDimension];
+        Image pokeball = CardImageCache.get(ConcentrationModel.getDefaultImage());
+//        sets face down card image.
+        for(int row = 0; row < boardDimension; row++) {
+            for (int col = 0; col < boardDimension; col++) {
+                Button button = new Button();
+                ImageView imageView = new ImageView(pokeball);
+//                set image on buttons.
+                button.setGraphic(imageView);
+                gridPane.add(button, col, row);
+                cards[row][col] = button;
+                cardImages[row][col] = imageView;
+                int finalRow = row;
+                int finalCol = col;
+                button.setOnAction((event) -> {
+//                    send coordinates to server.
+                    try {
+                        controller.sendToServer(finalRow, finalCol);
+                    } catch (IOException | ConcentrationException e) {
+                        e.printStackTrace();
+                    }
+                });
+            }
+        }
+        return gridPane;
+    }
+
+
+    /**
+     * Updates card depending on match or mismatch.
+     * Reuses the button and image view created in makeBoard, so the
+     * number of nodes in the grid never changes during a game.
+     *
+     * @param row        row
+     * @param col        column
+     * @param cardId     id of the card to show, -1 for face down
+     * @param matched    true if the card is matched
+     *
+     */
+    @Override
+    public void showCard(int row, int col, int cardId, boolean matched) {
+        ImageView imageView = cardImages[row][col];
+        imageView.setImage(CardImageCache.get(model.getImage(cardId)));
+        imageView.setEffect(cardId < 0 ? null
+                : CardImageCache.getTint(ImageCatalog.getTint(cardId)));
+//        stop sending reveals for a card once it is matched.
+//        other cards keep the click action set in makeBoard.
+        if (matched) {
+            cards[row][col].setOnAction(null);
+        }
+    }
+
+
+    @Override
+    public void setDisable(boolean disable) {
+        gridPane.setDisable(disable);
+    }
+}
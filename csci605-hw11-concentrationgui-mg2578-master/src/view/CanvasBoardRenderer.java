@@ -0,0 +1,197 @@
+/*
+Homework 11 : Concentration GUI
+File Name : CanvasBoardRenderer.java
+ */
+package view;
+
+import common.ConcentrationException;
+import controller.ConcentrationController;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import model.ConcentrationModel;
+import model.ImageCatalog;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Draws the whole board on a single Canvas.
+ * Only the cells that change are repainted, and clicks are mapped back to
+ * a row and column, so the scene graph stays at one node however large
+ * the board is.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+class CanvasBoardRenderer implements BoardRenderer {
+
+    /** size of a card image in pixels */
+    private static final double IMAGE_SIZE = 100;
+    /** largest width and height of the board in pixels */
+    private static final double MAX_BOARD_SIZE = 800;
+    /** space between cards in pixels */
+    private static final double GAP = 2;
+
+    /** the model */
+    private final ConcentrationModel model;
+    /** the controller */
+    private final ConcentrationController controller;
+    /** board dimension */
+    private int DIM;
+    /** width and height of a cell, including the gap */
+    private double cellSize;
+    /** draws on the canvas */
+    private GraphicsContext graphics;
+    /** whether each card is matched, as row * DIM + col */
+    private boolean[] matched;
+    /** id of the card shown in each cell, -1 if face down */
+    private int[] cardIds;
+    /** image drawn in each cell, as row * DIM + col */
+    private Image[] cellImages;
+    /** images still loading that this board waits for, one listener each */
+    private final Set<Image> awaited =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+    /** true if the board does not accept clicks */
+    private boolean disabled;
+
+
+    /**
+     * Constructor
+     *
+     * @param model         the model
+     * @param controller    the controller
+     */
+    CanvasBoardRenderer(ConcentrationModel model,
+                        ConcentrationController controller) {
+        this.model = model;
+        this.controller = controller;
+    }
+
+
+    /**
+     * Creates the canvas and paints every card face down.
+     * Cards shrink below their image size when the board would not fit.
+     *
+     * @param boardDimension    board dimension
+     * @return the canvas
+     *
+     */
+    @Override
+    public Node makeBoard(int boardDimension) {
+        DIM = boardDimension;
+        cellSize = Math.min(IMAGE_SIZE + GAP, MAX_BOARD_SIZE / boardDimension);
+        matched = new boolean[boardDimension * boardDimension];
+        cardIds = new int[boardDimension * boardDimension];
+        cellImages = new Image[boardDimension * boardDimension];
+        awaited.clear();
+        Canvas canvas = new Canvas(cellSize * boardDimension,
+                cellSize * boardDimension);
+        graphics = canvas.getGraphicsContext2D();
+        for (int row = 0; row < boardDimension; row++) {
+            for (int col = 0; col < boardDimension; col++) {
+                showCard(row, col, -1, false);
+            }
+        }
+        canvas.setOnMouseClicked(this::click);
+        return canvas;
+    }
+
+
+    /**
+     * Repaints one cell.
+     *
+     * @param row        row
+     * @param col        column
+     * @param cardId     id of the card to show, -1 for face down
+     * @param matched    true if the card is matched
+     *
+     */
+    @Override
+    public void showCard(int row, int col, int cardId, boolean matched) {
+        this.matched[row * DIM + col] = matched;
+        double x = col * cellSize;
+        double y = row * cellSize;
+        double size = cellSize - GAP;
+        cardIds[row * DIM + col] = cardId;
+        Image image = CardImageCache.get(model.getImage(cardId));
+        cellImages[row * DIM + col] = image;
+        if (image.getProgress() < 1) {
+            repaintWhenLoaded(image);
+        }
+        graphics.clearRect(x, y, cellSize, cellSize);
+        graphics.setEffect(cardId < 0 ? null
+                : CardImageCache.getTint(ImageCatalog.getTint(cardId)));
+        graphics.drawImage(image, x, y, size, size);
+        graphics.setEffect(null);
+    }
+
+
+    /**
+     * Paints the cells showing an image again once it has loaded, if the
+     * board is still shown.
+     * The image is shared by every card and board, so it gets one
+     * listener per board however often it is drawn while loading, and
+     * the listener removes itself once the image is ready.
+     *
+     * @param image    the image still loading
+     *
+     */
+    private void repaintWhenLoaded(Image image) {
+        if (!awaited.add(image)) {
+            return;
+        }
+        GraphicsContext board = graphics;
+        image.progressProperty().addListener(new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends Number> observable,
+                                Number before, Number progress) {
+                if (progress.doubleValue() < 1) {
+                    return;
+                }
+                observable.removeListener(this);
+                if (graphics != board) {
+                    return;
+                }
+                awaited.remove(image);
+                for (int cell = 0; cell < DIM * DIM; cell++) {
+                    if (cellImages[cell] == image) {
+                        showCard(cell / DIM, cell % DIM, cardIds[cell],
+                                matched[cell]);
+                    }
+                }
+            }
+        });
+    }
+
+
+    @Override
+    public void setDisable(boolean disable) {
+        disabled = disable;
+    }
+
+
+    /**
+     * Sends the clicked card to the server unless it is matched.
+     *
+     * @param event    the mouse event
+     *
+     */
+    private void click(MouseEvent event) {
+        int row = (int) (event.getY() / cellSize);
+        int col = (int) (event.getX() / cellSize);
+        if (disabled || row >= DIM || col >= DIM || matched[row * DIM + col]) {
+            return;
+        }
+        try {
+            controller.sendToServer(row, col);
+        } catch (IOException | ConcentrationException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+Homework 11 : Concentration GUI
+File Name : CardImageCache.java
+ */
+package view;
+
+import javafx.scene.effect.ColorAdjust;
+import javafx.scene.image.Image;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared cache of decoded card images, keyed by image name.
+ * Each PNG under images/ is decoded at most once for the life of the
+ * process, so revealing, hiding or matching a card only swaps in an
+ * already decoded Image. Images are decoded by JavaFX in the background:
+ * a lookup never waits for the decode, an image still loading is simply
+ * drawn once it is ready.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+public final class CardImageCache {
+
+    /** directory holding the card images, relative to this class */
+    private static final String IMAGE_DIR = "images/";
+    /** decoded images keyed by image name */
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+    /** number of lookups served from the cache */
+    private static final AtomicLong hits = new AtomicLong();
+    /** number of lookups that had to decode an image */
+    private static final AtomicLong misses = new AtomicLong();
+    /** hue shift of each tint, shared by every card with that tint */
+    private static final List<ColorAdjust> tints = new ArrayList<>();
+    /** hue step between tints, spreads them around the colour wheel */
+    private static final double TINT_STEP = 0.618;
+
+
+    /**
+     * Constructor.
+     * No instances, all state is shared.
+     *
+     */
+    private CardImageCache() {}
+
+
+    /**
+     * Starts decoding the given images ahead of time so later lookups are
+     * hits. Decodes start in the order given, so list the images needed
+     * first first. Images that are already cached are left alone and are
+     * not counted.
+     *
+     * @param imageNames    names of the images to decode
+     *
+     */
+    public static void preload(Iterable<String> imageNames) {
+        for (String name : imageNames) {
+            images.computeIfAbsent(name, CardImageCache::decode);
+        }
+    }
+
+
+    /**
+     * Gets the decoded image for the given name, decoding it on the
+     * first request only.
+     *
+     * @param imageName    name of the image file
+     * @return the decoded image
+     *
+     */
+    public static Image get(String imageName) {
+        Image image = images.get(imageName);
+        if (image != null) {
+            hits.incrementAndGet();
+            return image;
+        }
+        misses.incrementAndGet();
+        return images.computeIfAbsent(imageName, CardImageCache::decode);
+    }
+
+
+    /**
+     * Gets the effect that tints reused card images.
+     * Must only be called from the JavaFX Application thread.
+     *
+     * @param tint    tint of the card, 0 for none
+     * @return the effect, null for no tint
+     *
+     */
+    public static ColorAdjust getTint(int tint) {
+        if (tint == 0) {
+            return null;
+        }
+        while (tints.size() < tint) {
+            double hue = (tints.size() + 1) * TINT_STEP % 1.0;
+            tints.add(new ColorAdjust(hue * 2 - 1, 0, 0, 0));
+        }
+        return tints.get(tint - 1);
+    }
+
+
+    /**
+     * Get number of cache hits.
+     *
+     * @return cache hits
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+
+    /**
+     * Get number of cache misses.
+     *
+     * @return cache misses
+     */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+
+    /**
+     * Starts decoding an image from the images directory in the
+     * background.
+     *
+     * @param imageName    name of the image file
+     * @return the image, possibly still loading
+     *
+     */
+    private static Image decode(String imageName) {
+        return new Image(CardImageCache.class.getResource(IMAGE_DIR
+                + imageName).toExternalForm(), true);
+    }
+}
@@ -6,20 +6,33 @@ package view;
 
 import common.ConcentrationException;
 import controller.ConcentrationController;
+import controller.Listener;
+import controller.InboundQueue;
+import history.GameHistory;
+import history.HistoryRecorder;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
-import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import logging.Log;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import model.BoardEvent;
+import model.BoardObserver;
+import model.BoardState;
 import model.ConcentrationModel;
-import model.Observer;
+import model.ImageCatalog;
+import recording.SessionRecorder;
+import recording.SessionReplay;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import static model.ConcentrationModel.*;
 
 /**
@@ -30,14 +43,39 @@ import static model.ConcentrationModel.*;
  * @author Meenu Gigi, mg2578@rit.edu
  * @author Vedika Vishwanath Painjane, vp2312@rit.edu
  */
-public class ConcentrationGUI extends Application implements Observer<ConcentrationModel> {
+public class ConcentrationGUI extends Application implements BoardObserver {
 
     /** the model object */
     private ConcentrationModel model;
     /** the constructor object */
     private ConcentrationController controller;
-    /** the gridpane to create buttons */
-    private GridPane gridPane;
+    /** draws the cards */
+    private BoardRenderer renderer;
+    /** name of the renderer in use */
+    private String rendererName;
+    /** the node showing the board */
+    private Node boardNode;
+    /** times startup */
+    private final StartupTimer startupTimer = new StartupTimer();
+    /** the stage */
+    private Stage stage;
+    /** times refreshes and frames */
+    private final FrameTimer frameTimer = new FrameTimer();
+    /** runnables queued on the JavaFX Application thread, not run yet */
+    private final AtomicInteger fxQueued = new AtomicInteger();
+    /** model change to render times */
+    private final Histogram receiveToRender =
+            MetricsRegistry.get().histogram(MetricsRegistry.RECEIVE_TO_RENDER);
+    /** file to write metrics to on exit, null if metrics are off */
+    private File metricsFile;
+    /** shows live metrics, null if metrics are off */
+    private MetricsOverlay metricsOverlay;
+    /** records the session, null if not recording */
+    private SessionRecorder recorder;
+    /** stores finished games, null if not kept */
+    private GameHistory history;
+    /** replays a recorded session instead of playing, null if playing */
+    private Listener replay;
     /** the borderpane */
     private BorderPane borderPane;
     /** to display game stats */
@@ -50,16 +88,26 @@ public class ConcentrationGUI extends Application implements Observer<Concentrat
     private static final String GAME_ON = "OK";
     /** game over */
     private static final String GAME_OVER = "GAME_OVER";
+    /** shown in place of the board until it is made */
+    private static final String CONNECTING = "Connecting...";
+    /** space around the placeholder */
+    private static final double PLACEHOLDER_PADDING = 40;
+    /** could not connect */
+    private static final String NOT_CONNECTED = "NOT_CONNECTED";
+    /** connection lost, reconnecting */
+    private static final String RECONNECTING = "RECONNECTING";
     /** game status */
     private String gameStatus;
     /** label to display game status */
     private Label gameStatusLabel;
+    /** card changes waiting to be drawn on the JavaFX Application thread */
+    private volatile PendingCardUpdates pendingUpdates;
 
 
     /**
      * Creates the model and add ourselves as an observer.
      * Takes and process command line arguments.
-     * Creates the controller.
+     * Creates the controller, or the replay of a recorded session.
      *
      * @throws ConcentrationException   if invalid coordinates
      * @throws IOException              handles any IOExceptions
@@ -69,19 +117,78 @@ public class ConcentrationGUI extends Application implements Observer<Concentrat
     @Override
     public void init() throws ConcentrationException, IOException, InterruptedException {
         this.model = new ConcentrationModel();
-        model.addObserver(this);
+        model.addBoardObserver(this);
 //        get command line arguments.
-        List<String> args = getParameters().getRaw();
-        if (args.size() != 2) {
-            System.err.println(
-                    "Usage: java EchoClient <host name> <port number>");
+        List<String> args = getParameters().getUnnamed();
+        rendererName = getParameters().getNamed().getOrDefault("renderer",
+                "buttons");
+        String metricsPath = getParameters().getNamed().get("metrics");
+        if (metricsPath != null) {
+            metricsFile = new File(metricsPath);
+        }
+        MetricsRegistry.get().gauge(MetricsRegistry.FX_QUEUE, fxQueued::get);
+        String replayPath = getParameters().getNamed().get("replay");
+        String inbound = getParameters().getNamed().getOrDefault("inbound",
+                "block");
+        if ((replayPath == null && args.size() != 2)
+                || !(rendererName.equals("buttons")
+                || rendererName.equals("canvas"))
+                || !(inbound.equals("inline") || Arrays.stream(
+                InboundQueue.Policy.values()).anyMatch(policy ->
+                policy.name().equalsIgnoreCase(inbound)))) {
+            System.err.println("Usage: java EchoClient <host name> "
+                    + "<port number> [--renderer=buttons|canvas] "
+                    + "[--metrics=<file>] [--record=<file>] "
+                    + "[--history=<file> [--player=<name>]] "
+                    + "[--sync=true|false] "
+                    + "[--inbound=block|coalesce|drop_to_snapshot|inline]");
+            System.err.println("       java EchoClient --replay=<file> "
+                    + "[--speed=<factor>|max] [--renderer=buttons|canvas]");
             System.exit(1);
         }
+        if (replayPath != null) {
+//            no controller, the board only shows the recorded session.
+            renderer = rendererName.equals("canvas")
+                    ? new CanvasBoardRenderer(model, null)
+                    : new ButtonGridRenderer(model, null);
+            String speed = getParameters().getNamed().getOrDefault("speed",
+                    "1");
+            replay = new SessionReplay(new File(replayPath),
+                    speed.equals("max") ? 0 : Double.parseDouble(speed))
+                    .begin(model);
+            return;
+        }
         String hostName = args.get(0);
         int portNumber = Integer.parseInt(args.get(1));
 //        creates controller.
-        controller = new ConcentrationController(hostName, portNumber);
-        controller.begin();
+        controller = new ConcentrationController(hostName, portNumber, model);
+        controller.setSync(Boolean.parseBoolean(
+                getParameters().getNamed().getOrDefault("sync", "false")));
+//        the listener thread only decodes, the model is updated on a
+//        thread of its own behind a bounded queue.
+        controller.setInboundPolicy(inbound.equals("inline") ? null
+                : InboundQueue.Policy.valueOf(inbound.toUpperCase()));
+        String historyPath = getParameters().getNamed().get("history");
+        if (historyPath != null) {
+            history = new GameHistory(new File(historyPath));
+            model.addBoardObserver(new HistoryRecorder(history,
+                    getParameters().getNamed().getOrDefault("player",
+                            System.getProperty("user.name"))));
+        }
+        String recordPath = getParameters().getNamed().get("record");
+        if (recordPath != null) {
+            recorder = new SessionRecorder(new File(recordPath));
+            controller.setRecorder(recorder);
+        }
+        renderer = rendererName.equals("canvas")
+                ? new CanvasBoardRenderer(model, controller)
+                : new ButtonGridRenderer(model, controller);
+//        decode images while connecting, face down card first; the
+//        board uses the first images of the catalog.
+        List<String> images = new ArrayList<>();
+        images.add(getDefaultImage());
+        images.addAll(ImageCatalog.getImageNames());
+        CardImageCache.preload(images);
     }
 
 
@@ -89,54 +196,147 @@ public class ConcentrationGUI extends Application implements Observer<Concentrat
      * Creates the BorderPane.
      * Calls function to create a grid of discs and display game statistics.
      * Sets scene and stage title.
+     * The window is shown right away; the controller connects in the
+     * background and the board replaces the placeholder once it is made.
      *
      * @param stage     the stage
      *
      */
     @Override
     public void start(Stage stage){
+        this.stage = stage;
         borderPane = new BorderPane();
-        borderPane.setCenter(gridPane);
+        if (boardNode != null) {
+            borderPane.setCenter(boardNode);
+            boardShown();
+        }
+        else {
+            Label placeholder = new Label(CONNECTING);
+            placeholder.setPadding(new Insets(PLACEHOLDER_PADDING));
+            borderPane.setCenter(placeholder);
+        }
 //        display board statistics.
         displayInfo();
+//        show live metrics if asked for.
+        if (metricsFile != null) {
+            metricsOverlay = new MetricsOverlay();
+            borderPane.setTop(metricsOverlay.getLabel());
+            metricsOverlay.start();
+        }
         Scene scene = new Scene(borderPane);
         stage.setTitle("Concentration GUI");
         stage.setScene(scene);
         stage.setResizable(false);
         stage.show();
+        startupTimer.shown();
+        if (controller != null) {
+            Thread connector = new Thread(this::connect, "controller-connect");
+            connector.setDaemon(true);
+            connector.start();
+        }
+        if (replay != null) {
+            renderer.setDisable(true);
+            Thread replayer = new Thread(replay, "replay");
+            replayer.setDaemon(true);
+            replayer.start();
+        }
     }
 
 
     /**
-     * Creates board with face-down value of cards.
-     * Sets button action on click cards.
+     * Connects to the server. Runs off the JavaFX Application thread so
+     * the window stays responsive meanwhile.
      *
-     * @param boardDimension    board dimension
+     */
+    private void connect() {
+        try {
+            controller.begin();
+        } catch (IOException e) {
+            Log.error("could not connect: " + e.getMessage());
+            runOnFxThread( () -> gameStatusLabel.setText(NOT_CONNECTED) );
+        }
+    }
+
+
+    /**
+     * Records the board as interactive once its face down image is
+     * drawn.
+     *
+     */
+    private void boardShown() {
+        Image faceDown = CardImageCache.get(getDefaultImage());
+        if (faceDown.getProgress() >= 1) {
+            startupTimer.interactive();
+            return;
+        }
+        faceDown.progressProperty().addListener((observable, before, progress) -> {
+            if (progress.doubleValue() >= 1) {
+                startupTimer.interactive();
+            }
+        });
+    }
+
+
+    /**
+     * Reports image cache and drawing statistics when the application
+     * exits.
      *
      */
-    private void makeGrid(int boardDimension){
-        gridPane = new GridPane();
-        Image pokeball = new Image(getClass().getResourceAsStream("images" +
-                "/pokeball.png"));
-//        sets face down card image.
-        for(int row = 0; row < boardDimension; row++) {
-            for (int col = 0; col < boardDimension; col++) {
-                Button button = new Button();
-//                set image on buttons.
-                button.setGraphic(new ImageView(pokeball));
-                gridPane.add(button, col, row);
-                int finalRow = row;
-                int finalCol = col;
-                button.setOnAction((event) -> {
-//                    send coordinates to server.
-                    try {
-                        controller.sendToServer(finalRow, finalCol);
-                    } catch (IOException | ConcentrationException e) {
-                        e.printStackTrace();
-                    }
-                });
+    @Override
+    public void stop() {
+        System.out.println("Image cache hits: " + CardImageCache.getHits()
+                + ", misses: " + CardImageCache.getMisses());
+        System.out.println("Drawing (" + rendererName + "): "
+                + frameTimer.report());
+        System.out.println("Startup: " + startupTimer.report());
+        if (metricsOverlay != null) {
+            metricsOverlay.stop();
+        }
+        Histogram reconnects = MetricsRegistry.get().histogram(
+                MetricsRegistry.RECONNECT);
+        if (reconnects.getCount() > 0) {
+            System.out.println("Reconnects: " + reconnects.toMillis());
+        }
+        if (controller != null) {
+            try {
+                controller.close();
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
             }
         }
+        if (history != null) {
+            try {
+                System.out.println("Best on this board: " + history
+                        .getBoardScores(model.getDIM()));
+                history.close();
+            } catch (IOException e) {
+                System.err.println("could not write history: "
+                        + e.getMessage());
+            }
+        }
+        if (recorder != null) {
+            try {
+                recorder.close();
+                System.out.println("Recorded " + recorder.getCount()
+                        + " messages");
+            } catch (IOException e) {
+                System.err.println("could not write recording: "
+                        + e.getMessage());
+            }
+        }
+        if (metricsFile != null) {
+            try {
+                MetricsRegistry.get().dump(metricsFile);
+            } catch (IOException e) {
+                System.err.println("could not write metrics: "
+                        + e.getMessage());
+            }
+        }
+        if (Log.getDropped() > 0) {
+            System.out.println("Log lines dropped: " + Log.getDropped());
+        }
+//        the log thread is a daemon, write out what is still queued.
+        Log.flush();
     }
 
 
@@ -174,101 +374,164 @@ public class ConcentrationGUI extends Application implements Observer<Concentrat
 
 
     /**
-     * Update model if current thread is JavaFX Application thread.
-     * Else wait until current thread is JavaFX Application thread.
+     * Creates the board right away, or once on the JavaFX Application
+     * thread.
+     * Card changes are recorded and drawn together by a single
+     * Platform.runLater, however many arrive before it runs.
      *
      * @param model     the model
-     * @param row       row
-     * @param col       column
-     * @param action    action to be performed
+     * @param event     what changed
+     * @param cell      the card changed, or the dimension of a new board
+     * @param cardId    id of the card if it is face up, else -1
      *
      */
-    public void update(ConcentrationModel model, int row, int col,
-                       String action) {
-        if ( Platform.isFxApplicationThread() ) {
-            this.refresh(model, row, col, action);
+    @Override
+    public void onEvent(ConcentrationModel model, BoardEvent event, int cell,
+                        int cardId) {
+        PendingCardUpdates pending = pendingUpdates;
+        boolean scheduleDrain;
+        switch (event) {
+            case CREATE -> {
+                pendingUpdates = new PendingCardUpdates(cell);
+                if ( Platform.isFxApplicationThread() ) {
+                    this.createBoard(model, cell);
+                }
+                else {
+                    runOnFxThread( () -> this.createBoard(model, cell) );
+                }
+                return;
+            }
+            case DISCONNECTED, CONNECTED -> {
+                boolean lost = event == BoardEvent.DISCONNECTED;
+                runOnFxThread( () -> this.showConnection(lost) );
+                return;
+            }
+            case GAME_OVER -> scheduleDrain = pending.recordStats(
+                    model.getNumMoves(), model.getMatches(),
+                    model.getGameOver(), receivedAt(model));
+            default -> {
+                BoardState board = model.getBoard();
+                scheduleDrain = pending.record(cell, cardId,
+                        event == BoardEvent.MATCHED, board.getNumMoves(),
+                        board.getMatches(), board.getGameOver(),
+                        receivedAt(model));
+            }
         }
-        else {
-            Platform.runLater( () -> this.refresh( model, row, col, action) );
+        if (scheduleDrain) {
+            runOnFxThread( () -> this.refresh(pending) );
         }
     }
 
 
+    /**
+     * Gets when the listener received the change being notified. Changes
+     * that waited in the inbound queue carry their receipt time; others
+     * are applied as they arrive, so now is their receipt time.
+     *
+     * @param model    the model
+     * @return System.nanoTime() at receipt
+     *
+     */
+    private static long receivedAt(ConcentrationModel model) {
+        long receivedAt = model.getReceivedAt();
+        return receivedAt != 0 ? receivedAt : System.nanoTime();
+    }
+
+
+    /**
+     * Queues a task on the JavaFX Application thread, counting it in the
+     * queue depth until it runs.
+     *
+     * @param task    the task
+     *
+     */
+    private void runOnFxThread(Runnable task) {
+        fxQueued.incrementAndGet();
+        Platform.runLater( () -> {
+            fxQueued.decrementAndGet();
+            task.run();
+        });
+    }
+
+
     /**
      * Creates initial grid on receiving board dimensions from model.
-     * Reveal cards on a match.
-     * Hides card if not a match.
-     * Disables board at end of game.
-     * Updates board statistics.
      *
-     * @param model     the model
-     * @param row       row
-     * @param col       column
-     * @param action    action to be performed
+     * @param model             the model
+     * @param boardDimension    board dimension
      *
      */
-    private void refresh(ConcentrationModel model, int row, int col,
-                         String action) {
-//        create initial board.
-        switch (action) {
-            case CREATE -> makeGrid(row);
-            case NOTMATCHED -> {
-                Button button = updateCardImage(model, row, col);
-                int finalRow = row;
-                int finalCol = col;
-//            allow reveal card if not matched.
-                button.setOnAction((event) -> {
-                    try {
-                        controller.sendToServer(finalRow, finalCol);
-                    } catch (IOException | ConcentrationException e) {
-                        e.printStackTrace();
-                    }
-                });
-                updateGameStats(model);
-                break;
-            }
-            case MATCHED -> {
-                Button button = updateCardImage(model, row, col);
-//            disable button if card matched.
-                button.setDisable(false);
-                updateGameStats(model);
-                break;
-            }
+    private void createBoard(ConcentrationModel model, int boardDimension) {
+//        decode all card faces once before the first reveal.
+        CardImageCache.preload(model.getImageNames());
+        boardNode = renderer.makeBoard(boardDimension);
+//        a reconnect replaces the board of a window already shown.
+        if (borderPane != null) {
+            borderPane.setCenter(boardNode);
+            stage.sizeToScene();
+            updateGameStats(0, 0, false);
+            boardShown();
         }
     }
 
 
     /**
-     * Updates card depending on match or mismatch.
+     * Shows whether the server can be reached. Moves are not taken while
+     * it cannot; the board is created again once reconnected.
      *
-     * @param model     the model
-     * @param row       row
-     * @param col       column
-     * @return the updated button
+     * @param lost    true if the connection was lost
+     *
+     */
+    private void showConnection(boolean lost) {
+        if (gameStatusLabel == null) {
+            return;
+        }
+        renderer.setDisable(lost);
+        gameStatusLabel.setText(lost ? RECONNECTING : gameStatus);
+    }
+
+
+    /**
+     * Draws every card changed since the last refresh.
+     * Reveal cards on a match.
+     * Hides card if not a match.
+     * Disables board at end of game.
+     * Updates board statistics once for the whole batch.
+     *
+     * @param pending    the recorded card changes
      *
      */
-    private Button updateCardImage(ConcentrationModel model, int row, int col) {
-        Button button = new Button();
-        Image displayImage =
-                new Image(getClass().getResourceAsStream("images" + "/" + model.getCardImage()));
-        button.setGraphic(new ImageView(displayImage));
-        gridPane.add(button, col, row);
-        return button;
+    private void refresh(PendingCardUpdates pending) {
+        long start = System.nanoTime();
+        pending.drain();
+        int boardDimension = model.getDIM();
+        for (int i = 0; i < pending.drainedCount; i++) {
+            int cell = pending.drainedCells[i];
+            renderer.showCard(cell / boardDimension, cell % boardDimension,
+                    pending.drainedCardIds[i], pending.drainedMatched[i]);
+        }
+        updateGameStats(pending.drainedNumMoves, pending.drainedMatches,
+                pending.drainedGameOver);
+        long end = System.nanoTime();
+        frameTimer.recordRefresh(end - start);
+        receiveToRender.record(end - pending.drainedFirstChange);
     }
 
 
     /**
      * Updates game statistics.
      *
-     * @param model     the model
+     * @param numMoves    number of moves made
+     * @param matches     number of matches
+     * @param gameOver    true if the game is over
      *
      */
-    private void updateGameStats(ConcentrationModel model) {
-        numMovesMade.setText(String.valueOf(model.getNumMoves()));
-        numMatches.setText(String.valueOf(model.getMatches()));
-        if (model.getGameOver()) {
+    private void updateGameStats(int numMoves, int matches, boolean gameOver) {
+        numMovesMade.setText(String.valueOf(numMoves));
+        numMatches.setText(String.valueOf(matches));
+        if (gameOver) {
             gameStatus = GAME_OVER;
-            gridPane.setDisable(true);
+            renderer.setDisable(true);
         } else {
             gameStatus = GAME_ON;
         }
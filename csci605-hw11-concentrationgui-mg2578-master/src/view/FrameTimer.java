@@ -0,0 +1,110 @@
+/*
+Homework 11 : Concentration GUI
+File Name : FrameTimer.java
+ */
+package view;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Measures how long the GUI spends drawing.
+ * Records the time taken by each refresh of changed cards, and the time
+ * between rendered frames while cards are changing, so renderers can be
+ * compared on the same game. Runs on the JavaFX Application thread only.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+class FrameTimer extends AnimationTimer {
+
+    /** frames to keep timing after the last refresh */
+    private static final int FRAMES_AFTER_REFRESH = 2;
+
+    /** number of refreshes */
+    private long refreshes;
+    /** total refresh time in nanoseconds */
+    private long refreshNanos;
+    /** longest refresh in nanoseconds */
+    private long maxRefreshNanos;
+    /** number of frames timed */
+    private long frames;
+    /** total time between timed frames in nanoseconds */
+    private long frameNanos;
+    /** longest time between frames in nanoseconds */
+    private long maxFrameNanos;
+    /** time of the previous frame, 0 if not timing */
+    private long lastFrame;
+    /** frames left to time */
+    private int framesLeft;
+    /** true while the timer is running */
+    private boolean running;
+
+
+    /**
+     * Records one refresh and times the frames that show it.
+     *
+     * @param nanos    time taken by the refresh
+     *
+     */
+    void recordRefresh(long nanos) {
+        refreshes++;
+        refreshNanos += nanos;
+        maxRefreshNanos = Math.max(maxRefreshNanos, nanos);
+        framesLeft = FRAMES_AFTER_REFRESH;
+        if (!running) {
+            running = true;
+            lastFrame = 0;
+            start();
+        }
+    }
+
+
+    /**
+     * Records the time since the previous frame.
+     *
+     * @param now    time of this frame in nanoseconds
+     *
+     */
+    @Override
+    public void handle(long now) {
+        if (lastFrame != 0) {
+            long nanos = now - lastFrame;
+            frames++;
+            frameNanos += nanos;
+            maxFrameNanos = Math.max(maxFrameNanos, nanos);
+        }
+        lastFrame = now;
+        if (--framesLeft <= 0) {
+            running = false;
+            stop();
+        }
+    }
+
+
+    /**
+     * Describes the recorded times.
+     *
+     * @return averages and maximums in milliseconds
+     *
+     */
+    String report() {
+        return String.format("refresh avg %.3f ms, max %.3f ms over %d; "
+                        + "frame avg %.3f ms, max %.3f ms over %d",
+                average(refreshNanos, refreshes), maxRefreshNanos / 1e6,
+                refreshes, average(frameNanos, frames), maxFrameNanos / 1e6,
+                frames);
+    }
+
+
+    /**
+     * Gets an average in milliseconds.
+     *
+     * @param totalNanos    total in nanoseconds
+     * @param count         number of samples
+     * @return the average, 0 without samples
+     *
+     */
+    private static double average(long totalNanos, long count) {
+        return count == 0 ? 0 : totalNanos / 1e6 / count;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+Homework 11 : Concentration GUI
+File Name : MetricsOverlay.java
+ */
+package view;
+
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small label showing live client metrics: network round trip, time to
+ * render, message rate and JavaFX queue depth.
+ * The text is built twice a second on a background thread and only the
+ * finished string is handed to the JavaFX Application thread.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+class MetricsOverlay {
+
+    /** time between updates in milliseconds */
+    private static final long PERIOD_MILLIS = 500;
+
+    /** the label */
+    private final Label label = new Label();
+    /** updates the label */
+    private final ScheduledExecutorService updater =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-overlay");
+                thread.setDaemon(true);
+                return thread;
+            });
+    /** REVEAL to CARD times */
+    private final Histogram network;
+    /** model change to render times */
+    private final Histogram render;
+    /** messages received */
+    private final AtomicLong messages;
+    /** messages received at the previous update */
+    private long lastMessages;
+
+
+    /**
+     * Constructor
+     *
+     */
+    MetricsOverlay() {
+        MetricsRegistry registry = MetricsRegistry.get();
+        network = registry.histogram(MetricsRegistry.SEND_TO_CARD);
+        render = registry.histogram(MetricsRegistry.RECEIVE_TO_RENDER);
+        messages = registry.counter(MetricsRegistry.MESSAGES);
+    }
+
+
+    /**
+     * Get the label.
+     *
+     * @return the label
+     */
+    Label getLabel() {
+        return label;
+    }
+
+
+    /**
+     * Starts updating the label.
+     *
+     */
+    void start() {
+        updater.scheduleAtFixedRate(this::update, 0, PERIOD_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Stops updating the label.
+     *
+     */
+    void stop() {
+        updater.shutdownNow();
+    }
+
+
+    /**
+     * Builds the text and shows it.
+     *
+     */
+    private void update() {
+        long received = messages.get();
+        double rate = (received - lastMessages) * 1000.0 / PERIOD_MILLIS;
+        lastMessages = received;
+        String text = String.format("net p50 %.1f p99 %.1f ms | render p50 "
+                        + "%.1f p99 %.1f ms | %.0f msg/s | fx queue %d",
+                network.percentile(0.50) / 1e6, network.percentile(0.99) / 1e6,
+                render.percentile(0.50) / 1e6, render.percentile(0.99) / 1e6,
+                rate, fxQueueDepth());
+        Platform.runLater(() -> label.setText(text));
+    }
+
+
+    /**
+     * Reads the JavaFX queue depth gauge.
+     *
+     * @return queued runnables
+     *
+     */
+    private static long fxQueueDepth() {
+        return MetricsRegistry.get().gaugeValue(MetricsRegistry.FX_QUEUE);
+    }
+}
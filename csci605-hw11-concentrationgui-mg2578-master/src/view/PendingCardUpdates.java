@@ -0,0 +1,158 @@
+/*
+Homework 11 : Concentration GUI
+File Name : PendingCardUpdates.java
+ */
+package view;
+
+import java.util.BitSet;
+
+/**
+ * Collects card changes made by the model on the listener thread until
+ * the JavaFX Application thread applies them in one go.
+ * Only the latest change of each card is kept, so a card flipped several
+ * times between two drains is redrawn once. Game statistics are kept as
+ * their latest values.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+final class PendingCardUpdates {
+
+    /** cards changed since the last drain */
+    private final BitSet dirtyCells = new BitSet();
+    /** latest card id of each card, -1 if face down */
+    private final int[] cardIds;
+    /** whether each card is matched */
+    private final boolean[] matched;
+    /** latest number of moves */
+    private int numMoves;
+    /** latest number of matches */
+    private int matches;
+    /** latest game over value */
+    private boolean gameOver;
+    /** whether a drain has been scheduled and not run yet */
+    private boolean drainScheduled;
+    /** time the listener received the first change since the last
+     *  drain, 0 if none */
+    private long firstChange;
+
+    /** cards taken by the last drain, as row * DIM + col */
+    final int[] drainedCells;
+    /** card ids of the cards taken by the last drain, -1 if face down */
+    final int[] drainedCardIds;
+    /** matched flags of the cards taken by the last drain */
+    final boolean[] drainedMatched;
+    /** number of cards taken by the last drain */
+    int drainedCount;
+    /** number of moves at the last drain */
+    int drainedNumMoves;
+    /** number of matches at the last drain */
+    int drainedMatches;
+    /** game over value at the last drain */
+    boolean drainedGameOver;
+    /** time the listener received the first change taken by the last
+     *  drain */
+    long drainedFirstChange;
+
+
+    /**
+     * Constructor.
+     *
+     * @param boardDimension    board dimension
+     */
+    PendingCardUpdates(int boardDimension) {
+        int cells = boardDimension * boardDimension;
+        cardIds = new int[cells];
+        matched = new boolean[cells];
+        drainedCells = new int[cells];
+        drainedCardIds = new int[cells];
+        drainedMatched = new boolean[cells];
+    }
+
+
+    /**
+     * Records the new state of a card along with the game statistics.
+     *
+     * @param cell          the card, as row * dimension + col
+     * @param cardId        id of the card now shown, -1 if face down
+     * @param isMatched     true if the card is matched
+     * @param numMoves      number of moves made
+     * @param matches       number of matches
+     * @param gameOver      true if the game is over
+     * @param receivedAt    time the listener received the change
+     * @return true if the caller has to schedule a drain, false if one
+     *         is already pending.
+     *
+     */
+    synchronized boolean record(int cell, int cardId, boolean isMatched,
+                                int numMoves, int matches,
+                                boolean gameOver, long receivedAt) {
+        cardIds[cell] = cardId;
+        matched[cell] = isMatched;
+        dirtyCells.set(cell);
+        this.numMoves = numMoves;
+        this.matches = matches;
+        this.gameOver = gameOver;
+        if (firstChange == 0) {
+            firstChange = receivedAt;
+        }
+        if (drainScheduled) {
+            return false;
+        }
+        drainScheduled = true;
+        return true;
+    }
+
+
+    /**
+     * Records new game statistics without changing any card.
+     *
+     * @param numMoves      number of moves made
+     * @param matches       number of matches
+     * @param gameOver      true if the game is over
+     * @param receivedAt    time the listener received the change
+     * @return true if the caller has to schedule a drain, false if one
+     *         is already pending.
+     *
+     */
+    synchronized boolean recordStats(int numMoves, int matches,
+                                     boolean gameOver, long receivedAt) {
+        this.numMoves = numMoves;
+        this.matches = matches;
+        this.gameOver = gameOver;
+        if (firstChange == 0) {
+            firstChange = receivedAt;
+        }
+        if (drainScheduled) {
+            return false;
+        }
+        drainScheduled = true;
+        return true;
+    }
+
+
+    /**
+     * Moves all recorded changes into the drained fields so they can be
+     * applied without holding the lock.
+     * Must only be called from the JavaFX Application thread.
+     *
+     */
+    synchronized void drain() {
+        int count = 0;
+        for (int cell = dirtyCells.nextSetBit(0); cell >= 0;
+             cell = dirtyCells.nextSetBit(cell + 1)) {
+            drainedCells[count] = cell;
+            drainedCardIds[count] = cardIds[cell];
+            drainedMatched[count] = matched[cell];
+            count++;
+        }
+        dirtyCells.clear();
+        drainedCount = count;
+        drainedNumMoves = numMoves;
+        drainedMatches = matches;
+        drainedGameOver = gameOver;
+        drainedFirstChange = firstChange;
+        firstChange = 0;
+        drainScheduled = false;
+    }
+}
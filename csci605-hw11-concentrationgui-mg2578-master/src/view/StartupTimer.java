@@ -0,0 +1,90 @@
+/*
+Homework 11 : Concentration GUI
+File Name : StartupTimer.java
+ */
+package view;
+
+import javafx.animation.AnimationTimer;
+import logging.Log;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures how long the GUI takes to start, counted from the launch of
+ * the JVM: time to the first frame of the window, and time until the
+ * board is shown with its face down cards and can be clicked. Runs on the
+ * JavaFX Application thread only.
+ *
+ * @author Meenu Gigi, mg2578@rit.edu
+ * @author Vedika Vishwanath Painjane, vp2312@rit.edu
+ */
+class StartupTimer extends AnimationTimer {
+
+    /** launch time of the JVM, epoch millis */
+    private final long launchedAt =
+            ManagementFactory.getRuntimeMXBean().getStartTime();
+    /** time to the first frame, -1 until drawn */
+    private long firstFrameMillis = -1;
+    /** time until the board could be clicked, -1 until then */
+    private long interactiveMillis = -1;
+
+
+    /**
+     * Waits for the first frame once the window has been shown.
+     *
+     */
+    void shown() {
+        start();
+    }
+
+
+    /**
+     * Records the first frame.
+     *
+     * @param now    time of this frame in nanoseconds
+     *
+     */
+    @Override
+    public void handle(long now) {
+        stop();
+        if (firstFrameMillis < 0) {
+            firstFrameMillis = System.currentTimeMillis() - launchedAt;
+            Log.info("First frame after " + firstFrameMillis + " ms");
+        }
+    }
+
+
+    /**
+     * Records that the board can be clicked. Only the first call counts.
+     *
+     */
+    void interactive() {
+        if (interactiveMillis < 0) {
+            interactiveMillis = System.currentTimeMillis() - launchedAt;
+            Log.info("Interactive after " + interactiveMillis + " ms");
+        }
+    }
+
+
+    /**
+     * Describes the recorded times.
+     *
+     * @return times in milliseconds since launch
+     *
+     */
+    String report() {
+        return "first frame " + format(firstFrameMillis) + ", interactive "
+                + format(interactiveMillis);
+    }
+
+
+    /**
+     * Formats a time.
+     *
+     * @param millis    the time, -1 if it never happened
+     * @return the time in milliseconds, or "never"
+     *
+     */
+    private static String format(long millis) {
+        return millis < 0 ? "never" : millis + " ms";
+    }
+}